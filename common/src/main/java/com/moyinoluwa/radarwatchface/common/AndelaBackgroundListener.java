@@ -0,0 +1,40 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import android.graphics.Bitmap;
+
+import com.google.android.gms.wearable.DataMap;
+
+/**
+ * Hands the background pre-rendered on the phone to an {@link AndelaFaceRenderer}. The face draws
+ * a solid fill until the phone's background arrives. Only if there is none stored, or it doesn't
+ * fit the renderer's surface, is the background decoded on the watch.
+ */
+public class AndelaBackgroundListener implements DataLayer.Listener {
+
+    private final AndelaFaceRenderer mRenderer;
+    private final Runnable mOnBackgroundChanged;
+
+    /**
+     * @param onBackgroundChanged run after the renderer's background has changed, for example to
+     *                            redraw the face
+     */
+    public AndelaBackgroundListener(AndelaFaceRenderer renderer, Runnable onBackgroundChanged) {
+        mRenderer = renderer;
+        mOnBackgroundChanged = onBackgroundChanged;
+    }
+
+    @Override
+    public void onDataItem(String path, DataMap dataMap, byte[] asset) {
+        Bitmap background = BackgroundAssets.decodeBackground(dataMap, asset);
+        if (background == null || !mRenderer.setPrerenderedBackground(background)) {
+            mRenderer.useLocalBackground();
+        }
+        mOnBackgroundChanged.run();
+    }
+
+    @Override
+    public void onDataItemMissing(String path) {
+        mRenderer.useLocalBackground();
+        mOnBackgroundChanged.run();
+    }
+}
@@ -0,0 +1,352 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.v4.content.ContextCompat;
+import android.text.format.DateFormat;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws the Andela digital face on top of the scaled Andela background.
+ */
+public class AndelaFaceRenderer implements WatchFaceRenderer {
+
+    /**
+     * Update rates in milliseconds for interactive and ambient mode. In interactive mode we update
+     * once a second, in ambient mode once a minute.
+     */
+    private static final long INTERACTIVE_UPDATE_RATE_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long AMBIENT_UPDATE_RATE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Context mContext;
+    private final Typeface mTypeface;
+
+    // Variables for painting Background
+    private Paint mBackgroundPaint;
+    private Bitmap mBackgroundBitmap;
+
+    // Whether to decode and scale the background here rather than wait for the phone's copy.
+    private boolean mLocalBackground;
+
+    /*
+     * Fully configured paints and resolved strings for each mode. The draw path only picks one of
+     * these by reference; nothing is looked up or mutated per frame. They are rebuilt when the
+     * locale or the 12/24-hour setting changes, see updatePalettes().
+     */
+    private Palette mInteractivePalette;
+    private Palette mAmbientPalette;
+    private Palette mLowBitAmbientPalette;
+    private Palette mPalette;
+    private boolean mPalette24Hour;
+
+    private TimeZone mTimeZone = TimeZone.getDefault();
+
+    private boolean mAmbient;
+    private boolean mLowBitAmbient;
+
+    private long mSteps = -1;
+    private String mStepsText;
+
+    private CalendarEvent mNextEvent;
+    private String mNextEventText;
+    private boolean mCalendarPermissionNeeded;
+
+    private int mWidth;
+    private float mCenterX;
+    private float mCenterY;
+
+    private int mCacheRebuildCount;
+
+    public AndelaFaceRenderer(Context context) {
+        mContext = context;
+        mTypeface = Typeface.createFromAsset(context.getAssets(), "fonts/Roboto-Medium.ttf");
+
+        initializeBackground();
+
+        buildPalettes();
+    }
+
+    private void initializeBackground() {
+        mBackgroundPaint = new Paint();
+        mBackgroundPaint.setColor(Color.WHITE);
+    }
+
+    /**
+     * Paints and strings for drawing the face in one mode.
+     */
+    private static class Palette {
+        // Watch Face related objects
+        private Paint mHandPaint;
+        private Paint mDatePaint;
+
+        private final Locale mLocale;
+        private final SimpleDateFormat mDateFormat;
+        private final String mThisIsAndela = "#TIA";
+        private final String mAm = "AM";
+        private final String mPm = "PM";
+
+        Palette(Context context, Typeface typeface, Locale locale, TimeZone timeZone, boolean ambient,
+                boolean antiAlias) {
+            Resources resources = context.getResources();
+            int textColor = ambient
+                    ? Color.WHITE
+                    : ContextCompat.getColor(context, R.color.andela_text_color);
+
+            initializeText(resources, typeface, textColor, antiAlias);
+
+            initializeDate(resources, typeface, textColor, antiAlias);
+
+            mLocale = locale;
+            mDateFormat = new SimpleDateFormat("MMM dd", locale);
+            mDateFormat.setTimeZone(timeZone);
+        }
+
+        private void initializeText(Resources resources, Typeface typeface, int textColor, boolean antiAlias) {
+            mHandPaint = new Paint();
+            mHandPaint.setColor(textColor);
+            mHandPaint.setAntiAlias(antiAlias);
+            mHandPaint.setTextAlign(Paint.Align.CENTER);
+            mHandPaint.setTextSize(resources.getDimension(R.dimen.digital_text_size));
+            mHandPaint.setTypeface(typeface);
+        }
+
+        private void initializeDate(Resources resources, Typeface typeface, int textColor, boolean antiAlias) {
+            mDatePaint = new Paint();
+            mDatePaint.setColor(textColor);
+            mDatePaint.setAntiAlias(antiAlias);
+            mDatePaint.setTextAlign(Paint.Align.CENTER);
+            mDatePaint.setTextSize(resources.getDimension(R.dimen.date_text_size));
+            mDatePaint.setTypeface(typeface);
+        }
+    }
+
+    private void buildPalettes() {
+        Locale locale = mContext.getResources().getConfiguration().locale;
+        mPalette24Hour = DateFormat.is24HourFormat(mContext);
+
+        mInteractivePalette = new Palette(mContext, mTypeface, locale, mTimeZone, false, true);
+        mAmbientPalette = new Palette(mContext, mTypeface, locale, mTimeZone, true, true);
+        mLowBitAmbientPalette = new Palette(mContext, mTypeface, locale, mTimeZone, true, false);
+        selectPalette();
+
+        mStepsText = formatSteps(mSteps);
+        mNextEventText = formatNextEvent(mNextEvent);
+    }
+
+    private void selectPalette() {
+        if (!mAmbient) {
+            mPalette = mInteractivePalette;
+        } else if (mLowBitAmbient) {
+            mPalette = mLowBitAmbientPalette;
+        } else {
+            mPalette = mAmbientPalette;
+        }
+    }
+
+    @Override
+    public void setSurfaceSize(int width, int height) {
+        /*
+         * Find the coordinates of the center point on the screen.
+         * Ignore the window insets so that, on round watches
+         * with a "chin", the watch face is centered on the entire screen,
+         * not just the usable portion.
+         */
+        mWidth = width;
+        mCenterX = width / 2f;
+        mCenterY = height / 2f;
+
+        // A background for another size is no use; until a new one is in, a solid fill is drawn.
+        if (mBackgroundBitmap != null && mBackgroundBitmap.getWidth() != width) {
+            mBackgroundBitmap = null;
+        }
+        if (mBackgroundBitmap == null && mLocalBackground) {
+            renderLocalBackground();
+        }
+    }
+
+    /**
+     * Uses a background pre-rendered on the phone instead of scaling one on the watch. Returns
+     * {@code false}, and keeps the current background, if it was rendered for a surface of a
+     * different width.
+     */
+    public boolean setPrerenderedBackground(Bitmap background) {
+        if (mWidth != 0 && background.getWidth() != mWidth) {
+            return false;
+        }
+        mBackgroundBitmap = background;
+        return true;
+    }
+
+    /**
+     * Decodes and scales the background on this device. Until this or
+     * {@link #setPrerenderedBackground(Bitmap)} is called, the background is a solid fill, so a
+     * watch waiting for the phone's copy never pays for the decode. Once called, later surface
+     * size changes are also rendered locally.
+     */
+    public void useLocalBackground() {
+        mLocalBackground = true;
+        if (mBackgroundBitmap == null && mWidth > 0) {
+            renderLocalBackground();
+        }
+    }
+
+    private void renderLocalBackground() {
+        mBackgroundBitmap = BackgroundAssets.renderAndelaBackground(mContext.getResources(), mWidth);
+        mCacheRebuildCount++;
+    }
+
+    @Override
+    public void setAmbientMode(boolean inAmbientMode) {
+        mAmbient = inAmbientMode;
+        selectPalette();
+    }
+
+    @Override
+    public void setLowBitAmbient(boolean lowBitAmbient) {
+        mLowBitAmbient = lowBitAmbient;
+        selectPalette();
+    }
+
+    @Override
+    public void updatePalettes() {
+        // The 12/24-hour setting only changes the next event's start time, which is built here.
+        if (!mContext.getResources().getConfiguration().locale.equals(mPalette.mLocale)
+                || DateFormat.is24HourFormat(mContext) != mPalette24Hour) {
+            buildPalettes();
+        }
+    }
+
+    @Override
+    public void setTimeZone(TimeZone timeZone) {
+        mTimeZone = timeZone;
+        mInteractivePalette.mDateFormat.setTimeZone(timeZone);
+        mAmbientPalette.mDateFormat.setTimeZone(timeZone);
+        mLowBitAmbientPalette.mDateFormat.setTimeZone(timeZone);
+        mNextEventText = formatNextEvent(mNextEvent);
+    }
+
+    @Override
+    public void setStepCount(long steps) {
+        // Only rebuild the text when the count changes, not on every frame.
+        if (steps != mSteps) {
+            mSteps = steps;
+            mStepsText = formatSteps(steps);
+        }
+    }
+
+    @Override
+    public void setNextEvent(CalendarEvent event) {
+        // The cache hands back the same instance until the next event changes.
+        if (event != mNextEvent) {
+            mNextEvent = event;
+            mNextEventText = formatNextEvent(event);
+        }
+    }
+
+    @Override
+    public void setCalendarPermissionNeeded(boolean needed) {
+        if (needed != mCalendarPermissionNeeded) {
+            mCalendarPermissionNeeded = needed;
+            mNextEventText = formatNextEvent(mNextEvent);
+        }
+    }
+
+    private String formatSteps(long steps) {
+        return (steps < 0) ? null : mContext.getString(R.string.step_count, steps);
+    }
+
+    private String formatNextEvent(CalendarEvent event) {
+        if (mCalendarPermissionNeeded) {
+            return mContext.getString(R.string.calendar_permission_hint);
+        }
+        if (event == null) {
+            return null;
+        }
+        java.text.DateFormat timeFormat = DateFormat.getTimeFormat(mContext);
+        timeFormat.setTimeZone(mTimeZone);
+        return mContext.getString(R.string.next_event,
+                timeFormat.format(new Date(event.begin)), event.title);
+    }
+
+    @Override
+    public long delayToNextFrameMs(long timeMs) {
+        if (mAmbient) {
+            return AMBIENT_UPDATE_RATE_MS - (timeMs % AMBIENT_UPDATE_RATE_MS);
+        }
+        return INTERACTIVE_UPDATE_RATE_MS - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
+    }
+
+    @Override
+    public int getCacheRebuildCount() {
+        return mCacheRebuildCount;
+    }
+
+    @Override
+    public void draw(Canvas canvas, Calendar calendar) {
+        drawBackground(canvas);
+
+        drawText(canvas, calendar);
+
+        drawDate(canvas, calendar);
+
+        drawStepCount(canvas);
+
+        drawNextEvent(canvas);
+    }
+
+    private void drawBackground(Canvas canvas) {
+        if (mAmbient) {
+            canvas.drawColor(Color.BLACK);
+        } else if (mBackgroundBitmap == null) {
+            canvas.drawPaint(mBackgroundPaint);
+        } else {
+            canvas.drawBitmap(mBackgroundBitmap, 0, 0, mBackgroundPaint);
+        }
+    }
+
+    private void drawText(Canvas canvas, Calendar calendar) {
+        String timeText;
+        int hour;
+        int timeOfDay = calendar.get(Calendar.AM_PM);
+
+        // Replaces the 0 hour with 12
+        hour = (calendar.get(Calendar.HOUR) == 0) ? 12 : calendar.get(Calendar.HOUR);
+
+        // Adds an AM or PM subscript to the time
+        timeText = String.format(mPalette.mLocale, "%d:%02d %s", hour, calendar.get(Calendar.MINUTE),
+                (timeOfDay > 0) ? mPalette.mPm : mPalette.mAm);
+
+        canvas.drawText(timeText, mCenterX, mCenterY - 50f, mPalette.mHandPaint);
+        if (mAmbient) {
+            canvas.drawText(mPalette.mThisIsAndela, mCenterX, mCenterY + 70f, mPalette.mHandPaint);
+        }
+    }
+
+    private void drawDate(Canvas canvas, Calendar calendar) {
+        canvas.drawText(mPalette.mDateFormat.format(calendar.getTime()), mCenterX, mCenterY - 20f,
+                mPalette.mDatePaint);
+    }
+
+    private void drawStepCount(Canvas canvas) {
+        if (mStepsText != null) {
+            canvas.drawText(mStepsText, mCenterX, mCenterY + 5f, mPalette.mDatePaint);
+        }
+    }
+
+    private void drawNextEvent(Canvas canvas) {
+        if (mNextEventText != null) {
+            canvas.drawText(mNextEventText, mCenterX, mCenterY + 30f, mPalette.mDatePaint);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import com.google.android.gms.wearable.DataMap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Shared between the phone and the watch: renders the Andela background at a given surface size
+ * and moves it across the Data Layer as raw {@link Bitmap.Config#ARGB_8888} pixels, so the watch
+ * only has to copy the bytes into a bitmap instead of decoding and scaling the PNG itself.
+ *
+ * <p>The watch publishes its surface size at {@link #PATH_SURFACE_SIZE}; the phone answers with
+ * the rendered background at {@link #PATH_ANDELA_BACKGROUND}.
+ */
+public final class BackgroundAssets {
+
+    public static final String PATH_SURFACE_SIZE = "/andela/surface_size";
+    public static final String PATH_ANDELA_BACKGROUND = "/andela/background";
+
+    private static final String KEY_WIDTH = "width";
+    private static final String KEY_HEIGHT = "height";
+    private static final String KEY_FORMAT = "format";
+
+    /*
+     * Same format the watch decodes the PNG to, so the pre-rendered background looks exactly like
+     * a local one. RGB_565 would halve the transfer but band the background's gradients.
+     */
+    private static final Bitmap.Config PIXEL_FORMAT = Bitmap.Config.ARGB_8888;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private BackgroundAssets() {
+    }
+
+    /**
+     * Decodes the Andela background and scales it to fill {@code width}, keeping its aspect ratio.
+     */
+    public static Bitmap renderAndelaBackground(Resources resources, int width) {
+        Bitmap source = BitmapFactory.decodeResource(resources, R.drawable.custom_andela_background);
+
+        float scale = ((float) width) / (float) source.getWidth();
+        Bitmap scaled = Bitmap.createScaledBitmap(source,
+                (int) (source.getWidth() * scale),
+                (int) (source.getHeight() * scale), true);
+        if (scaled != source) {
+            source.recycle();
+        }
+        return scaled;
+    }
+
+    public static void publishSurfaceSize(DataLayer dataLayer, int width, int height) {
+        DataMap dataMap = new DataMap();
+        dataMap.putInt(KEY_WIDTH, width);
+        dataMap.putInt(KEY_HEIGHT, height);
+        dataLayer.putDataItem(PATH_SURFACE_SIZE, dataMap, null);
+    }
+
+    public static int getWidth(DataMap dataMap) {
+        return dataMap.getInt(KEY_WIDTH);
+    }
+
+    public static int getHeight(DataMap dataMap) {
+        return dataMap.getInt(KEY_HEIGHT);
+    }
+
+    /**
+     * Publishes {@code background} at {@link #PATH_ANDELA_BACKGROUND} as raw pixels.
+     */
+    public static void publishBackground(DataLayer dataLayer, Bitmap background) {
+        Bitmap pixels = background.getConfig() == PIXEL_FORMAT
+                ? background
+                : background.copy(PIXEL_FORMAT, false);
+
+        ByteBuffer buffer = ByteBuffer.allocate(pixels.getWidth() * pixels.getHeight() * BYTES_PER_PIXEL);
+        pixels.copyPixelsToBuffer(buffer);
+        if (pixels != background) {
+            pixels.recycle();
+        }
+
+        DataMap dataMap = new DataMap();
+        dataMap.putInt(KEY_WIDTH, background.getWidth());
+        dataMap.putInt(KEY_HEIGHT, background.getHeight());
+        dataMap.putString(KEY_FORMAT, PIXEL_FORMAT.name());
+        dataLayer.putDataItem(PATH_ANDELA_BACKGROUND, dataMap, buffer.array());
+    }
+
+    /**
+     * Copies a background published by {@link #publishBackground(DataLayer, Bitmap)} into a new
+     * bitmap. Returns {@code null} if the item is not in the expected format.
+     */
+    public static Bitmap decodeBackground(DataMap dataMap, byte[] asset) {
+        int width = dataMap.getInt(KEY_WIDTH);
+        int height = dataMap.getInt(KEY_HEIGHT);
+        if (asset == null || width <= 0 || height <= 0
+                || !PIXEL_FORMAT.name().equals(dataMap.getString(KEY_FORMAT))
+                || asset.length != width * height * BYTES_PER_PIXEL) {
+            return null;
+        }
+
+        Bitmap background = Bitmap.createBitmap(width, height, PIXEL_FORMAT);
+        background.copyPixelsFromBuffer(ByteBuffer.wrap(asset));
+        return background;
+    }
+}
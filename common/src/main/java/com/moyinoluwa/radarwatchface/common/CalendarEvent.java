@@ -0,0 +1,18 @@
+package com.moyinoluwa.radarwatchface.common;
+
+/**
+ * A single instance of a calendar event, as shown on the faces.
+ */
+public class CalendarEvent {
+    public final long eventId;
+    public final long begin;
+    public final long end;
+    public final String title;
+
+    public CalendarEvent(long eventId, long begin, long end, String title) {
+        this.eventId = eventId;
+        this.begin = begin;
+        this.end = end;
+        this.title = title;
+    }
+}
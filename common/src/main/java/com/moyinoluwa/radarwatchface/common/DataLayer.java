@@ -0,0 +1,41 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import com.google.android.gms.wearable.DataMap;
+
+/**
+ * The small slice of the Wearable Data Layer the phone and the watch use to hand pre-rendered
+ * assets to each other. {@link WearableDataLayer} talks to Google Play services; the tests use an
+ * in-process fake so the exchange can be tested.
+ */
+public interface DataLayer {
+
+    /**
+     * Publishes {@code dataMap} at {@code path}, replacing whatever was there before.
+     * {@code asset} may be {@code null} when the item carries no binary payload.
+     */
+    void putDataItem(String path, DataMap dataMap, byte[] asset);
+
+    /**
+     * Registers {@code listener} for items published at {@code path}. The listener is first
+     * told about the item currently stored at that path, or that there is none, and then about
+     * every change. Callbacks are delivered on the main thread.
+     */
+    void addListener(String path, Listener listener);
+
+    void removeListener(String path, Listener listener);
+
+    interface Listener {
+
+        /**
+         * Called with the contents of an item published at {@code path}. {@code asset} is
+         * {@code null} when the item carries no binary payload.
+         */
+        void onDataItem(String path, DataMap dataMap, byte[] asset);
+
+        /**
+         * Called instead of {@link #onDataItem} when there turned out to be no item stored at
+         * {@code path}, or the data layer could not be reached to find out.
+         */
+        void onDataItemMissing(String path);
+    }
+}
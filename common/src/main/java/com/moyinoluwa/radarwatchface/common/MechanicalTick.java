@@ -0,0 +1,80 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motion of a mechanical second hand: at each second boundary the hand springs forward, overshoots
+ * slightly and settles within {@link #ANIMATION_MS}, then stays still until the next second.
+ *
+ * <p>The easing curve is sampled once into a small lookup table so a frame only costs an array
+ * read and a linear interpolation. The motion is drawn as a few frames spread over the animation,
+ * about the rate of a real movement's beat, which keeps the face at 4 frames a second.
+ */
+public final class MechanicalTick {
+
+    /**
+     * How long the hand takes to move to the next second and settle.
+     */
+    public static final long ANIMATION_MS = 150;
+
+    /**
+     * Time between frames while the hand is moving: three frames after the one on the second,
+     * the middle one close to the peak of the overshoot and the last one settled.
+     */
+    public static final long FRAME_MS = 50;
+
+    private static final long SECOND_MS = TimeUnit.SECONDS.toMillis(1);
+
+    private static final int LUT_SIZE = 32;
+
+    // Amount of overshoot of the "back" easing curve; 1.70158 gives about 10% past the target.
+    private static final float OVERSHOOT = 1.70158f;
+
+    private static final float[] LUT = buildLut(LUT_SIZE);
+
+    private MechanicalTick() {
+    }
+
+    /*
+     * Samples an ease-out-back curve, which starts at 0, passes 1 and settles back on 1.
+     */
+    private static float[] buildLut(int size) {
+        float[] lut = new float[size];
+        for (int i = 0; i < size; i++) {
+            float t = (float) i / (size - 1) - 1f;
+            lut[i] = 1f + (OVERSHOOT + 1f) * t * t * t + OVERSHOOT * t * t;
+        }
+        return lut;
+    }
+
+    /**
+     * Returns how far the hand has moved from the previous second towards the current one, where
+     * 0 is the previous second and 1 the current one. Values just above 1 are the overshoot.
+     */
+    public static float progress(long msIntoSecond) {
+        if (msIntoSecond >= ANIMATION_MS) {
+            return 1f;
+        }
+        if (msIntoSecond <= 0) {
+            return 0f;
+        }
+
+        float position = (float) msIntoSecond / ANIMATION_MS * (LUT_SIZE - 1);
+        int index = (int) position;
+        float fraction = position - index;
+        return LUT[index] + (LUT[index + 1] - LUT[index]) * fraction;
+    }
+
+    /**
+     * Returns how long to wait after {@code timeMs} before drawing the next frame: a frame
+     * interval while the hand is moving, otherwise the time until the next second boundary.
+     */
+    public static long delayToNextFrameMs(long timeMs) {
+        long msIntoSecond = timeMs % SECOND_MS;
+        if (msIntoSecond < ANIMATION_MS) {
+            // Land the last frame exactly on the end of the animation so the hand settles.
+            return Math.min(FRAME_MS, ANIMATION_MS - msIntoSecond);
+        }
+        return SECOND_MS - msIntoSecond;
+    }
+}
@@ -0,0 +1,457 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.v4.content.ContextCompat;
+import android.text.format.DateFormat;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws the Radar analog face. In ambient mode, the second hand isn't shown.
+ */
+public class RadarFaceRenderer implements WatchFaceRenderer {
+
+    /**
+     * Update rates in milliseconds for interactive and ambient mode. In interactive mode we update
+     * once a second, in ambient mode once a minute.
+     */
+    private static final long INTERACTIVE_UPDATE_RATE_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long AMBIENT_UPDATE_RATE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Context mContext;
+    private final Typeface mTypeface;
+
+    /*
+     * Fully configured paints and resolved strings for each mode. The draw path only picks one of
+     * these by reference; nothing is looked up or mutated per frame. They are rebuilt when the
+     * locale or the 12/24-hour setting changes, see updatePalettes().
+     */
+    private Palette mInteractivePalette;
+    private Palette mAmbientPalette;
+    private Palette mLowBitAmbientPalette;
+    private Palette mPalette;
+    private Locale mPaletteLocale;
+    private boolean mPalette24Hour;
+
+    private TimeZone mTimeZone = TimeZone.getDefault();
+
+    private float mHourHandLength;
+    private float mMinuteHandLength;
+    private float mSecondHandLength;
+
+    private boolean mAmbient;
+    private boolean mLowBitAmbient;
+    private boolean mMechanicalTick;
+
+    private long mSteps = -1;
+    private String mStepsText;
+
+    private CalendarEvent mNextEvent;
+    private String mNextEventText;
+    private boolean mCalendarPermissionNeeded;
+
+    private float mCenterX;
+    private float mCenterY;
+
+    public RadarFaceRenderer(Context context) {
+        mContext = context;
+        mTypeface = Typeface.createFromAsset(context.getAssets(), "fonts/NexaLight.ttf");
+
+        buildPalettes();
+    }
+
+    /**
+     * Paints and strings for drawing the face in one mode.
+     */
+    private static class Palette {
+        // Variables for painting background
+        private Paint mBackgroundPaint;
+
+        // Watch Face Hand related objects
+        private Paint mHourAndMinuteHandPaint;
+        private Paint mSecondHandPaint;
+        private Paint mCirclePaint;
+        private Paint mTickPaint;
+        private Paint radarTextPaint;
+        private Paint hourTextPaint;
+        private Paint mStepsPaint;
+
+        private String mRadarText;
+
+        Palette(Context context, Typeface typeface, boolean ambient, boolean antiAlias) {
+            Resources resources = context.getResources();
+
+            initializeBackground(context);
+
+            initializeRadarTextPaint(context, resources, typeface, ambient, antiAlias);
+
+            initializeHourTextPaint(context, resources, typeface, antiAlias);
+
+            initializeStepsPaint();
+
+            initializeTickPaint(context, resources, antiAlias);
+
+            initializeMinuteAndHourHand(context, resources, antiAlias);
+
+            initializeSecondHand(context, resources, antiAlias);
+
+            initializeCenterCircle(context, antiAlias);
+
+            mRadarText = context.getString(R.string.my_analog_name)
+                    .toLowerCase(resources.getConfiguration().locale);
+        }
+
+        private void initializeBackground(Context context) {
+            mBackgroundPaint = new Paint();
+            mBackgroundPaint.setColor(ContextCompat.getColor(context, R.color.radar_background_color));
+        }
+
+        private void initializeMinuteAndHourHand(Context context, Resources resources, boolean antiAlias) {
+            mHourAndMinuteHandPaint = new Paint();
+            mHourAndMinuteHandPaint.setColor(ContextCompat.getColor(context, R.color.analog_hands));
+            mHourAndMinuteHandPaint.setStrokeWidth(resources.getDimension(R.dimen.analog_hand_stroke));
+            mHourAndMinuteHandPaint.setAntiAlias(antiAlias);
+            mHourAndMinuteHandPaint.setStrokeCap(Paint.Cap.SQUARE);
+        }
+
+        private void initializeSecondHand(Context context, Resources resources, boolean antiAlias) {
+            mSecondHandPaint = new Paint();
+            mSecondHandPaint.setColor(ContextCompat.getColor(context, R.color.analog_hands));
+            mSecondHandPaint.setStrokeWidth(resources.getDimension(R.dimen.tick_hand_stroke));
+            mSecondHandPaint.setAntiAlias(antiAlias);
+            mSecondHandPaint.setStrokeCap(Paint.Cap.SQUARE);
+        }
+
+        private void initializeCenterCircle(Context context, boolean antiAlias) {
+            mCirclePaint = new Paint();
+            mCirclePaint.setColor(ContextCompat.getColor(context, R.color.analog_hands));
+            mCirclePaint.setAntiAlias(antiAlias);
+        }
+
+        private void initializeTickPaint(Context context, Resources resources, boolean antiAlias) {
+            mTickPaint = new Paint();
+            mTickPaint.setColor(ContextCompat.getColor(context, R.color.tick_color));
+            mTickPaint.setStrokeWidth(resources.getDimension(R.dimen.tick_hand_stroke));
+            mTickPaint.setAntiAlias(antiAlias);
+        }
+
+        private void initializeRadarTextPaint(Context context, Resources resources, Typeface typeface,
+                boolean ambient, boolean antiAlias) {
+            float radarTextSize = 60;
+
+            radarTextPaint = new Paint();
+            radarTextPaint.setColor(ambient
+                    ? Color.WHITE
+                    : ContextCompat.getColor(context, R.color.radar_text_color));
+            radarTextPaint.setStrokeWidth(resources.getDimension(R.dimen.radar_hand_stroke));
+            radarTextPaint.setAntiAlias(antiAlias);
+            radarTextPaint.setTextAlign(Paint.Align.LEFT);
+            radarTextPaint.setTextSize(radarTextSize);
+            radarTextPaint.setTypeface(typeface);
+        }
+
+        private void initializeHourTextPaint(Context context, Resources resources, Typeface typeface,
+                boolean antiAlias) {
+            float hourTextSize = 20;
+
+            hourTextPaint = new Paint();
+            hourTextPaint.setColor(ContextCompat.getColor(context, R.color.tick_color));
+            hourTextPaint.setStrokeWidth(resources.getDimension(R.dimen.radar_hand_stroke));
+            hourTextPaint.setAntiAlias(antiAlias);
+            hourTextPaint.setTextAlign(Paint.Align.LEFT);
+            hourTextPaint.setTextSize(hourTextSize);
+            hourTextPaint.setTypeface(typeface);
+        }
+
+        private void initializeStepsPaint() {
+            mStepsPaint = new Paint(hourTextPaint);
+            mStepsPaint.setTextAlign(Paint.Align.CENTER);
+        }
+    }
+
+    private void buildPalettes() {
+        mPaletteLocale = mContext.getResources().getConfiguration().locale;
+        mPalette24Hour = DateFormat.is24HourFormat(mContext);
+
+        mInteractivePalette = new Palette(mContext, mTypeface, false, true);
+        mAmbientPalette = new Palette(mContext, mTypeface, true, true);
+        mLowBitAmbientPalette = new Palette(mContext, mTypeface, true, false);
+        selectPalette();
+
+        mStepsText = formatSteps(mSteps);
+        mNextEventText = formatNextEvent(mNextEvent);
+    }
+
+    private void selectPalette() {
+        if (!mAmbient) {
+            mPalette = mInteractivePalette;
+        } else if (mLowBitAmbient) {
+            mPalette = mLowBitAmbientPalette;
+        } else {
+            mPalette = mAmbientPalette;
+        }
+    }
+
+    @Override
+    public void setSurfaceSize(int width, int height) {
+        /*
+         * Find the coordinates of the center point on the screen.
+         * Ignore the window insets so that, on round watches
+         * with a "chin", the watch face is centered on the entire screen,
+         * not just the usable portion.
+         */
+        mCenterX = width / 2f;
+        mCenterY = height / 2f;
+
+        // Calculate the lengths of the watch hands and store them in member variables.
+        mHourHandLength = mCenterX - 80;
+        mMinuteHandLength = mCenterX - 50;
+        mSecondHandLength = mCenterX - 20;
+    }
+
+    @Override
+    public void setAmbientMode(boolean inAmbientMode) {
+        mAmbient = inAmbientMode;
+        selectPalette();
+    }
+
+    @Override
+    public void setLowBitAmbient(boolean lowBitAmbient) {
+        mLowBitAmbient = lowBitAmbient;
+        selectPalette();
+    }
+
+    @Override
+    public void updatePalettes() {
+        // The 12/24-hour setting only changes the next event's start time, which is built here.
+        if (!mContext.getResources().getConfiguration().locale.equals(mPaletteLocale)
+                || DateFormat.is24HourFormat(mContext) != mPalette24Hour) {
+            buildPalettes();
+        }
+    }
+
+    @Override
+    public void setTimeZone(TimeZone timeZone) {
+        mTimeZone = timeZone;
+        mNextEventText = formatNextEvent(mNextEvent);
+    }
+
+    /**
+     * Switches the second hand between jumping to each second once a second and a mechanical tick
+     * that springs to each second and settles, see {@link MechanicalTick}. The mechanical tick
+     * draws three extra frames after every second.
+     */
+    public void setMechanicalTick(boolean mechanicalTick) {
+        mMechanicalTick = mechanicalTick;
+    }
+
+    @Override
+    public void setStepCount(long steps) {
+        // Only rebuild the text when the count changes, not on every frame.
+        if (steps != mSteps) {
+            mSteps = steps;
+            mStepsText = formatSteps(steps);
+        }
+    }
+
+    @Override
+    public void setNextEvent(CalendarEvent event) {
+        // The cache hands back the same instance until the next event changes.
+        if (event != mNextEvent) {
+            mNextEvent = event;
+            mNextEventText = formatNextEvent(event);
+        }
+    }
+
+    @Override
+    public void setCalendarPermissionNeeded(boolean needed) {
+        if (needed != mCalendarPermissionNeeded) {
+            mCalendarPermissionNeeded = needed;
+            mNextEventText = formatNextEvent(mNextEvent);
+        }
+    }
+
+    private String formatSteps(long steps) {
+        return (steps < 0) ? null : mContext.getString(R.string.step_count, steps);
+    }
+
+    private String formatNextEvent(CalendarEvent event) {
+        if (mCalendarPermissionNeeded) {
+            return mContext.getString(R.string.calendar_permission_hint);
+        }
+        if (event == null) {
+            return null;
+        }
+        java.text.DateFormat timeFormat = DateFormat.getTimeFormat(mContext);
+        timeFormat.setTimeZone(mTimeZone);
+        return mContext.getString(R.string.next_event,
+                timeFormat.format(new Date(event.begin)), event.title);
+    }
+
+    @Override
+    public long delayToNextFrameMs(long timeMs) {
+        if (mAmbient) {
+            return AMBIENT_UPDATE_RATE_MS - (timeMs % AMBIENT_UPDATE_RATE_MS);
+        }
+        if (mMechanicalTick) {
+            return MechanicalTick.delayToNextFrameMs(timeMs);
+        }
+        return INTERACTIVE_UPDATE_RATE_MS - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
+    }
+
+    @Override
+    public int getCacheRebuildCount() {
+        // Nothing is cached between frames on this face.
+        return 0;
+    }
+
+    @Override
+    public void draw(Canvas canvas, Calendar calendar) {
+        // Draw the background.
+        drawBackground(canvas);
+
+        // draw 'radar' text
+        drawRadarText(canvas);
+
+        // draw the minute ticks
+        drawMinuteTicks(canvas);
+
+        // draw the hour ticks
+        drawHourTicks(canvas);
+
+        // draw today's step count
+        drawStepCount(canvas);
+
+        // draw the next calendar event
+        drawNextEvent(canvas);
+
+        // draw the hour and minute hand
+        drawHourAndMinuteHand(canvas, calendar);
+
+        // draw second hand
+        drawSecondHand(canvas, calendar);
+
+        // draw center circle
+        drawCircle(canvas);
+    }
+
+    private void drawBackground(Canvas canvas) {
+        if (mAmbient) {
+            canvas.drawColor(Color.BLACK);
+        } else {
+            canvas.drawRect(0, 0, canvas.getWidth(), canvas.getHeight(), mPalette.mBackgroundPaint);
+        }
+    }
+
+    private void drawRadarText(Canvas canvas) {
+        canvas.drawText(mPalette.mRadarText, mCenterX - 75f, mCenterY - 40f, mPalette.radarTextPaint);
+    }
+
+    private void drawHourTicks(Canvas canvas) {
+
+        // draws the hour values on specific positions on the canvas
+        canvas.drawText("12", mCenterX - 10f, mCenterY - 120f, mPalette.hourTextPaint);
+        canvas.drawText("1", mCenterX + 60f, mCenterY - 100f, mPalette.hourTextPaint);
+        canvas.drawText("2", mCenterX + 105f, mCenterY - 57f, mPalette.hourTextPaint);
+        canvas.drawText("3", mCenterX + 120f, mCenterY + 7f, mPalette.hourTextPaint);
+        canvas.drawText("4", mCenterX + 105f, mCenterY + 73f, mPalette.hourTextPaint);
+        canvas.drawText("5", mCenterX + 55f, mCenterY + 120f, mPalette.hourTextPaint);
+        canvas.drawText("6", mCenterX - 3f, mCenterY + 130f, mPalette.hourTextPaint);
+        canvas.drawText("7", mCenterX - 69f, mCenterY + 120f, mPalette.hourTextPaint);
+        canvas.drawText("8", mCenterX - 115f, mCenterY + 73f, mPalette.hourTextPaint);
+        canvas.drawText("9", mCenterX - 132f, mCenterY + 7f, mPalette.hourTextPaint);
+        canvas.drawText("10", mCenterX - 115f, mCenterY - 57f, mPalette.hourTextPaint);
+        canvas.drawText("11", mCenterX - 69f, mCenterY - 100f, mPalette.hourTextPaint);
+    }
+
+    private void drawStepCount(Canvas canvas) {
+        if (mStepsText != null) {
+            canvas.drawText(mStepsText, mCenterX, mCenterY + 60f, mPalette.mStepsPaint);
+        }
+    }
+
+    private void drawNextEvent(Canvas canvas) {
+        if (mNextEventText != null) {
+            canvas.drawText(mNextEventText, mCenterX, mCenterY + 85f, mPalette.mStepsPaint);
+        }
+    }
+
+    private void drawMinuteTicks(Canvas canvas) {
+        float innerTickRadius;
+
+        // Doubles the length of the hour tick so that
+        // there is a distinction between the minutes and hours
+        for (int tickIndex = 0; tickIndex < 60; tickIndex++) {
+            if (tickIndex == 0 || (tickIndex % 5) == 0) {
+                innerTickRadius = mCenterX - 20;
+            } else {
+                innerTickRadius = mCenterX - 10;
+            }
+
+            float tickRotation = (float) (tickIndex * Math.PI * 2 / 60);
+            float innerX = (float) Math.sin(tickRotation) * innerTickRadius;
+            float innerY = (float) -Math.cos(tickRotation) * innerTickRadius;
+            float outerX = (float) Math.sin(tickRotation) * mCenterX;
+            float outerY = (float) -Math.cos(tickRotation) * mCenterX;
+            canvas.drawLine(mCenterX + innerX, mCenterY + innerY, mCenterX + outerX, mCenterY + outerY, mPalette.mTickPaint);
+        }
+    }
+
+    private void drawHourAndMinuteHand(Canvas canvas, Calendar calendar) {
+
+        // Constant to help calculate clock hand rotations
+        final float TWO_PI = (float) Math.PI * 2f;
+
+        float seconds = calendar.get(Calendar.SECOND) +
+                calendar.get(Calendar.MILLISECOND) / 1000f;
+
+        float minutes = calendar.get(Calendar.MINUTE) + seconds / 60f;
+        float minutesRotation = minutes / 60f * TWO_PI;
+
+        float hours = calendar.get(Calendar.HOUR) + minutes / 60f;
+        float hoursRotation = hours / 12f * TWO_PI;
+
+        float minX = (float) Math.sin(minutesRotation) * mMinuteHandLength;
+        float minY = (float) -Math.cos(minutesRotation) * mMinuteHandLength;
+        canvas.drawLine(mCenterX, mCenterY, mCenterX + minX, mCenterY + minY, mPalette.mHourAndMinuteHandPaint);
+
+        float hrX = (float) Math.sin(hoursRotation) * mHourHandLength;
+        float hrY = (float) -Math.cos(hoursRotation) * mHourHandLength;
+        canvas.drawLine(mCenterX, mCenterY, mCenterX + hrX, mCenterY + hrY, mPalette.mHourAndMinuteHandPaint);
+    }
+
+    private void drawSecondHand(Canvas canvas, Calendar calendar) {
+        final float seconds;
+        if (mMechanicalTick) {
+            seconds = calendar.get(Calendar.SECOND) - 1
+                    + MechanicalTick.progress(calendar.get(Calendar.MILLISECOND));
+        } else {
+            seconds = (calendar.get(Calendar.SECOND) + calendar.get(Calendar.MILLISECOND) / 1000f);
+        }
+
+        // Constant to help calculate clock hand rotations
+        final float TWO_PI = (float) Math.PI * 2f;
+
+        final float secondsRotation = seconds / 60f * TWO_PI;
+
+        if (!mAmbient) {
+            float secX = (float) Math.sin(secondsRotation) * mSecondHandLength;
+            float secY = (float) -Math.cos(secondsRotation) * mSecondHandLength;
+            canvas.drawLine(mCenterX, mCenterY, mCenterX + secX, mCenterY + secY, mPalette.mSecondHandPaint);
+        }
+    }
+
+    private void drawCircle(Canvas canvas) {
+        final float circleRadius = 8.5f;
+        canvas.drawCircle(mCenterX, mCenterY, circleRadius, mPalette.mCirclePaint);
+    }
+}
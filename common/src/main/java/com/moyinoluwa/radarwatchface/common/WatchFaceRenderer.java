@@ -0,0 +1,74 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import android.graphics.Canvas;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Draws a single watch face onto a canvas. The engines on the watch own the lifecycle (timers,
+ * receivers, ambient callbacks) and hand the drawing over to a renderer, which keeps the drawing
+ * code free of any dependency on a bound wallpaper engine so the phone can draw previews with it.
+ */
+public interface WatchFaceRenderer {
+
+    /**
+     * Called whenever the size of the surface being drawn on changes.
+     */
+    void setSurfaceSize(int width, int height);
+
+    /**
+     * Switches between the interactive and the ambient look of the face.
+     */
+    void setAmbientMode(boolean inAmbientMode);
+
+    /**
+     * Tells the renderer whether the screen needs the ambient look without anti-aliasing, either
+     * because it has low-bit ambient or because it needs burn-in protection.
+     */
+    void setLowBitAmbient(boolean lowBitAmbient);
+
+    /**
+     * Rebuilds the per-mode paints and strings if the locale or the 12/24-hour setting has
+     * changed since they were built.
+     */
+    void updatePalettes();
+
+    /**
+     * Sets the time zone the date and the next event's start time are shown in. Called with the
+     * zone of the calendars later passed to {@link #draw(Canvas, Calendar)}.
+     */
+    void setTimeZone(TimeZone timeZone);
+
+    /**
+     * Sets the number of steps taken today. A negative count hides the step count.
+     */
+    void setStepCount(long steps);
+
+    /**
+     * Sets the next calendar event to show, or {@code null} to show none.
+     */
+    void setNextEvent(CalendarEvent event);
+
+    /**
+     * Sets whether to show a hint to grant calendar access in place of the next event.
+     */
+    void setCalendarPermissionNeeded(boolean needed);
+
+    /**
+     * Draws the face for the time held by {@code calendar}.
+     */
+    void draw(Canvas canvas, Calendar calendar);
+
+    /**
+     * Returns how long to wait after {@code timeMs} before the face needs to be drawn again in
+     * its current mode.
+     */
+    long delayToNextFrameMs(long timeMs);
+
+    /**
+     * Returns how many times a cached drawing resource (such as a scaled bitmap) has been
+     * rebuilt since the renderer was created.
+     */
+    int getCacheRebuildCount();
+}
@@ -0,0 +1,294 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.ResultCallback;
+import com.google.android.gms.common.api.Status;
+import com.google.android.gms.wearable.Asset;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.DataEvent;
+import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataItemBuffer;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.PutDataMapRequest;
+import com.google.android.gms.wearable.PutDataRequest;
+import com.google.android.gms.wearable.Wearable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DataLayer} backed by the Wearable Data Layer in Google Play services. Assets are read on
+ * a background thread and listeners are called back on the main thread once the bytes are in.
+ *
+ * <p>A layer from {@link #createPutOnly(Context)} only puts items, see there.
+ */
+public class WearableDataLayer implements DataLayer, DataApi.DataListener,
+        GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener {
+
+    private static final String TAG = "WearableDataLayer";
+
+    private static final String KEY_ASSET = "asset";
+
+    private static final long CONNECTION_TIMEOUT_SECONDS = 30;
+
+    private final GoogleApiClient mGoogleApiClient;
+
+    // Whether this layer registers for data changes; put-only layers never do.
+    private final boolean mListening;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService mAssetExecutor = Executors.newSingleThreadExecutor();
+
+    private final Map<String, List<Listener>> mListeners = new HashMap<>();
+
+    // Items put before the client connected, keyed by path so only the latest one is sent.
+    private final Map<String, PutDataRequest> mPendingRequests = new LinkedHashMap<>();
+
+    public WearableDataLayer(Context context) {
+        this(context, true);
+    }
+
+    private WearableDataLayer(Context context, boolean listening) {
+        mListening = listening;
+        GoogleApiClient.Builder builder = new GoogleApiClient.Builder(context)
+                .addApi(Wearable.API);
+        if (listening) {
+            builder.addConnectionCallbacks(this)
+                    .addOnConnectionFailedListener(this);
+        }
+        mGoogleApiClient = builder.build();
+    }
+
+    /**
+     * Returns a layer that can only put items, for use off the main thread after
+     * {@link #blockingConnect()}, for example from a
+     * {@link com.google.android.gms.wearable.WearableListenerService}. It never registers for data
+     * changes, and {@link #putDataItem} waits until the item is stored, so the layer can be
+     * disconnected as soon as it returns.
+     */
+    public static WearableDataLayer createPutOnly(Context context) {
+        return new WearableDataLayer(context, false);
+    }
+
+    public void connect() {
+        mGoogleApiClient.connect();
+    }
+
+    /**
+     * Connects and waits for the connection. Only for use off the main thread, for example from a
+     * {@link com.google.android.gms.wearable.WearableListenerService}.
+     */
+    public boolean blockingConnect() {
+        return mGoogleApiClient.blockingConnect(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .isSuccess();
+    }
+
+    public void disconnect() {
+        if (mListening && mGoogleApiClient.isConnected()) {
+            Wearable.DataApi.removeListener(mGoogleApiClient, this);
+        }
+        mGoogleApiClient.disconnect();
+        mAssetExecutor.shutdownNow();
+    }
+
+    @Override
+    public void putDataItem(String path, DataMap dataMap, byte[] asset) {
+        PutDataMapRequest request = PutDataMapRequest.create(path);
+        request.getDataMap().putAll(dataMap);
+        if (asset != null) {
+            request.getDataMap().putAsset(KEY_ASSET, Asset.createFromBytes(asset));
+        }
+        PutDataRequest putDataRequest = request.asPutDataRequest().setUrgent();
+
+        if (!mListening) {
+            putAndWait(path, putDataRequest);
+        } else if (mGoogleApiClient.isConnected()) {
+            Wearable.DataApi.putDataItem(mGoogleApiClient, putDataRequest);
+        } else {
+            mPendingRequests.put(path, putDataRequest);
+        }
+    }
+
+    private void putAndWait(String path, PutDataRequest request) {
+        if (!mGoogleApiClient.isConnected()) {
+            Log.w(TAG, "Not connected, dropping " + path);
+            return;
+        }
+        Status status = Wearable.DataApi.putDataItem(mGoogleApiClient, request)
+                .await(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS).getStatus();
+        if (!status.isSuccess()) {
+            Log.w(TAG, "Unable to put " + path + ": " + status);
+        }
+    }
+
+    @Override
+    public void addListener(String path, Listener listener) {
+        if (!mListening) {
+            throw new IllegalStateException("Put-only data layer");
+        }
+        List<Listener> listeners = mListeners.get(path);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            mListeners.put(path, listeners);
+        }
+        listeners.add(listener);
+
+        if (mGoogleApiClient.isConnected()) {
+            loadCurrentItem(path);
+        }
+    }
+
+    @Override
+    public void removeListener(String path, Listener listener) {
+        List<Listener> listeners = mListeners.get(path);
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    @Override
+    public void onConnected(Bundle connectionHint) {
+        Wearable.DataApi.addListener(mGoogleApiClient, this);
+
+        for (PutDataRequest request : mPendingRequests.values()) {
+            Wearable.DataApi.putDataItem(mGoogleApiClient, request);
+        }
+        mPendingRequests.clear();
+
+        for (String path : mListeners.keySet()) {
+            loadCurrentItem(path);
+        }
+    }
+
+    @Override
+    public void onConnectionSuspended(int cause) {
+        Log.d(TAG, "onConnectionSuspended: " + cause);
+    }
+
+    @Override
+    public void onConnectionFailed(ConnectionResult connectionResult) {
+        Log.d(TAG, "onConnectionFailed: " + connectionResult);
+
+        // No stored items will arrive, so let the listeners fall back on whatever they have.
+        for (String path : new ArrayList<>(mListeners.keySet())) {
+            dispatchMissing(path);
+        }
+    }
+
+    @Override
+    public void onDataChanged(DataEventBuffer dataEvents) {
+        for (DataEvent event : dataEvents) {
+            if (event.getType() == DataEvent.TYPE_CHANGED) {
+                dispatch(event.getDataItem());
+            }
+        }
+    }
+
+    private void loadCurrentItem(final String path) {
+        Uri uri = new Uri.Builder().scheme(PutDataRequest.WEAR_URI_SCHEME).path(path).build();
+        Wearable.DataApi.getDataItems(mGoogleApiClient, uri)
+                .setResultCallback(new ResultCallback<DataItemBuffer>() {
+                    @Override
+                    public void onResult(DataItemBuffer dataItems) {
+                        if (dataItems.getCount() == 0) {
+                            dispatchMissing(path);
+                        }
+                        for (DataItem dataItem : dataItems) {
+                            dispatch(dataItem);
+                        }
+                        dataItems.release();
+                    }
+                });
+    }
+
+    private void dispatchMissing(String path) {
+        List<Listener> listeners = mListeners.get(path);
+        if (listeners == null) {
+            return;
+        }
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onDataItemMissing(path);
+        }
+    }
+
+    /*
+     * Copies the item out of its buffer straight away, since the buffer is released once the
+     * callback returns, then reads the asset off the main thread.
+     */
+    private void dispatch(DataItem dataItem) {
+        final String path = dataItem.getUri().getPath();
+        if (!mListeners.containsKey(path)) {
+            return;
+        }
+        final DataMap dataMap = DataMapItem.fromDataItem(dataItem).getDataMap();
+
+        mAssetExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final byte[] asset = readAsset(dataMap.getAsset(KEY_ASSET));
+                dataMap.remove(KEY_ASSET);
+
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        List<Listener> listeners = mListeners.get(path);
+                        if (listeners == null) {
+                            return;
+                        }
+                        for (Listener listener : new ArrayList<>(listeners)) {
+                            listener.onDataItem(path, dataMap, asset);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private byte[] readAsset(Asset asset) {
+        if (asset == null || !mGoogleApiClient.isConnected()) {
+            return null;
+        }
+
+        InputStream in = Wearable.DataApi.getFdForAsset(mGoogleApiClient, asset)
+                .await().getInputStream();
+        if (in == null) {
+            return null;
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read asset", e);
+            return null;
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.moyinoluwa.radarwatchface.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MechanicalTickTest {
+
+    private static final float DELTA = 0.0001f;
+
+    @Test
+    public void startsAtPreviousSecondAndSettlesOnCurrentOne() {
+        assertEquals(0f, MechanicalTick.progress(0), DELTA);
+        assertEquals(1f, MechanicalTick.progress(MechanicalTick.ANIMATION_MS), DELTA);
+        assertEquals(1f, MechanicalTick.progress(999), DELTA);
+    }
+
+    @Test
+    public void overshootsBeforeSettling() {
+        float peak = 0f;
+        for (long ms = 0; ms < MechanicalTick.ANIMATION_MS; ms++) {
+            peak = Math.max(peak, MechanicalTick.progress(ms));
+        }
+        assertTrue(peak > 1.05f);
+        assertTrue(peak < 1.2f);
+    }
+
+    @Test
+    public void idlesUntilNextSecondOnceSettled() {
+        assertEquals(MechanicalTick.FRAME_MS, MechanicalTick.delayToNextFrameMs(5000));
+        assertEquals(MechanicalTick.FRAME_MS, MechanicalTick.delayToNextFrameMs(5050));
+        assertEquals(6, MechanicalTick.delayToNextFrameMs(5144));
+        assertEquals(850, MechanicalTick.delayToNextFrameMs(5150));
+        assertEquals(500, MechanicalTick.delayToNextFrameMs(5500));
+    }
+
+    @Test
+    public void showsTheOvershootInADrawnFrame() {
+        float peak = 0f;
+        for (long ms = 0; ms <= MechanicalTick.ANIMATION_MS;
+                ms += MechanicalTick.delayToNextFrameMs(ms)) {
+            peak = Math.max(peak, MechanicalTick.progress(ms));
+        }
+        assertTrue(peak > 1.05f);
+    }
+
+    @Test
+    public void framesPerMinuteStayWithinBudget() {
+        long timeMs = 0;
+        long endMs = TimeUnit.MINUTES.toMillis(1);
+        int frames = 0;
+        while (timeMs < endMs) {
+            frames++;
+            timeMs += MechanicalTick.delayToNextFrameMs(timeMs);
+        }
+
+        // One frame on the second plus three during the 150 ms burst, versus 60 frames for a
+        // plain tick. No more than 5 frames a second.
+        assertEquals(240, frames);
+        assertTrue(frames <= 5 * 60);
+    }
+}
@@ -0,0 +1,135 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.graphics.Bitmap;
+import android.test.AndroidTestCase;
+
+import com.google.android.gms.wearable.DataMap;
+import com.moyinoluwa.radarwatchface.common.AndelaBackgroundListener;
+import com.moyinoluwa.radarwatchface.common.AndelaFaceRenderer;
+import com.moyinoluwa.radarwatchface.common.BackgroundAssets;
+import com.moyinoluwa.radarwatchface.common.DataLayer;
+
+/**
+ * Runs the phone and watch halves of the background exchange against a {@link FakeDataLayer}.
+ * The watch half is an {@link AndelaFaceRenderer} fed by an {@link AndelaBackgroundListener},
+ * whose cache rebuild count shows whether the watch had to decode the background itself.
+ */
+public class BackgroundPrerendererTest extends AndroidTestCase {
+
+    private FakeDataLayer mDataLayer;
+    private Bitmap mReceivedBackground;
+    private int mBackgroundChanges;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDataLayer = new FakeDataLayer();
+        mDataLayer.addListener(BackgroundAssets.PATH_SURFACE_SIZE,
+                new BackgroundPrerenderer(getContext().getResources(), mDataLayer));
+        mDataLayer.addListener(BackgroundAssets.PATH_ANDELA_BACKGROUND, new DataLayer.Listener() {
+            @Override
+            public void onDataItem(String path, DataMap dataMap, byte[] asset) {
+                mReceivedBackground = BackgroundAssets.decodeBackground(dataMap, asset);
+            }
+
+            @Override
+            public void onDataItemMissing(String path) {
+            }
+        });
+    }
+
+    public void testBackgroundIsRenderedAtWatchSize() {
+        BackgroundAssets.publishSurfaceSize(mDataLayer, 320, 290);
+
+        assertNotNull(mReceivedBackground);
+        assertEquals(320, mReceivedBackground.getWidth());
+        assertEquals(Bitmap.Config.ARGB_8888, mReceivedBackground.getConfig());
+    }
+
+    public void testReceivedPixelsMatchPhoneRendering() {
+        BackgroundAssets.publishSurfaceSize(mDataLayer, 280, 280);
+
+        Bitmap expected = BackgroundAssets.renderAndelaBackground(getContext().getResources(), 280)
+                .copy(Bitmap.Config.ARGB_8888, false);
+        assertTrue(expected.sameAs(mReceivedBackground));
+    }
+
+    public void testMalformedBackgroundIsRejected() {
+        DataMap dataMap = new DataMap();
+        dataMap.putInt("width", 10);
+        dataMap.putInt("height", 10);
+
+        assertNull(BackgroundAssets.decodeBackground(dataMap, new byte[10]));
+    }
+
+    public void testWatchUsesPhoneBackgroundWithoutDecoding() {
+        BackgroundAssets.publishSurfaceSize(mDataLayer, 320, 320);
+
+        AndelaFaceRenderer renderer = startWatch(320);
+
+        assertEquals(0, renderer.getCacheRebuildCount());
+        assertEquals(1, mBackgroundChanges);
+    }
+
+    public void testWatchDecodesBackgroundWhenNoneIsStored() {
+        AndelaFaceRenderer renderer = startWatch(320);
+
+        assertEquals(1, renderer.getCacheRebuildCount());
+        assertEquals(1, mBackgroundChanges);
+    }
+
+    public void testWatchDecodesBackgroundWhenPhoneCopyHasAnotherWidth() {
+        BackgroundAssets.publishSurfaceSize(mDataLayer, 280, 280);
+
+        AndelaFaceRenderer renderer = startWatch(320);
+
+        assertEquals(1, renderer.getCacheRebuildCount());
+    }
+
+    public void testSurfaceChangeDropsBackgroundOfOldSize() {
+        BackgroundAssets.publishSurfaceSize(mDataLayer, 320, 320);
+        AndelaFaceRenderer renderer = startWatch(320);
+
+        renderer.setSurfaceSize(280, 280);
+        // Nothing to keep for the new size, so falling back has to decode.
+        renderer.useLocalBackground();
+
+        assertEquals(1, renderer.getCacheRebuildCount());
+    }
+
+    public void testSurfaceChangeWaitsForPhoneCopyOfNewSize() {
+        BackgroundAssets.publishSurfaceSize(mDataLayer, 320, 320);
+        AndelaFaceRenderer renderer = startWatch(320);
+
+        renderer.setSurfaceSize(280, 280);
+        BackgroundAssets.publishSurfaceSize(mDataLayer, 280, 280);
+
+        assertEquals(0, renderer.getCacheRebuildCount());
+        assertEquals(2, mBackgroundChanges);
+    }
+
+    public void testLocalBackgroundFollowsSurfaceChanges() {
+        AndelaFaceRenderer renderer = startWatch(320);
+
+        renderer.setSurfaceSize(280, 280);
+
+        assertEquals(2, renderer.getCacheRebuildCount());
+    }
+
+    /*
+     * Starts the watch half the way the Andela engine does: a renderer sized for the surface and
+     * listening for the phone's background.
+     */
+    private AndelaFaceRenderer startWatch(int surfaceSize) {
+        AndelaFaceRenderer renderer = new AndelaFaceRenderer(getContext());
+        renderer.setSurfaceSize(surfaceSize, surfaceSize);
+        mDataLayer.addListener(BackgroundAssets.PATH_ANDELA_BACKGROUND,
+                new AndelaBackgroundListener(renderer, new Runnable() {
+                    @Override
+                    public void run() {
+                        mBackgroundChanges++;
+                    }
+                }));
+        return renderer;
+    }
+}
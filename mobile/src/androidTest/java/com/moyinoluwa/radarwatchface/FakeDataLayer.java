@@ -0,0 +1,58 @@
+package com.moyinoluwa.radarwatchface;
+
+import com.google.android.gms.wearable.DataMap;
+import com.moyinoluwa.radarwatchface.common.DataLayer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process {@link DataLayer} that delivers items synchronously to listeners in the same
+ * process. Lets the phone and watch halves of an exchange be wired to each other in a test.
+ */
+public class FakeDataLayer implements DataLayer {
+
+    private final Map<String, DataMap> mDataMaps = new HashMap<>();
+    private final Map<String, byte[]> mAssets = new HashMap<>();
+    private final Map<String, List<Listener>> mListeners = new HashMap<>();
+
+    @Override
+    public void putDataItem(String path, DataMap dataMap, byte[] asset) {
+        mDataMaps.put(path, dataMap);
+        mAssets.put(path, asset);
+
+        List<Listener> listeners = mListeners.get(path);
+        if (listeners != null) {
+            for (Listener listener : new ArrayList<>(listeners)) {
+                listener.onDataItem(path, dataMap, asset);
+            }
+        }
+    }
+
+    @Override
+    public void addListener(String path, Listener listener) {
+        List<Listener> listeners = mListeners.get(path);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            mListeners.put(path, listeners);
+        }
+        listeners.add(listener);
+
+        DataMap current = mDataMaps.get(path);
+        if (current != null) {
+            listener.onDataItem(path, current, mAssets.get(path));
+        } else {
+            listener.onDataItemMissing(path);
+        }
+    }
+
+    @Override
+    public void removeListener(String path, Listener listener) {
+        List<Listener> listeners = mListeners.get(path);
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.moyinoluwa.radarwatchface;
+
+import com.google.android.gms.wearable.DataEvent;
+import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.WearableListenerService;
+import com.moyinoluwa.radarwatchface.common.BackgroundAssets;
+import com.moyinoluwa.radarwatchface.common.WearableDataLayer;
+
+/**
+ * Woken up by the Data Layer whenever the watch reports a new surface size, and answers with a
+ * background rendered at that size.
+ */
+public class BackgroundPrerenderService extends WearableListenerService {
+
+    @Override
+    public void onDataChanged(DataEventBuffer dataEvents) {
+        WearableDataLayer dataLayer = null;
+        try {
+            for (DataEvent event : dataEvents) {
+                String path = event.getDataItem().getUri().getPath();
+                if (event.getType() != DataEvent.TYPE_CHANGED
+                        || !BackgroundAssets.PATH_SURFACE_SIZE.equals(path)) {
+                    continue;
+                }
+
+                if (dataLayer == null) {
+                    // Put-only: the puts below finish before the finally block disconnects.
+                    dataLayer = WearableDataLayer.createPutOnly(this);
+                    if (!dataLayer.blockingConnect()) {
+                        return;
+                    }
+                }
+
+                new BackgroundPrerenderer(getResources(), dataLayer).onDataItem(path,
+                        DataMapItem.fromDataItem(event.getDataItem()).getDataMap(), null);
+            }
+        } finally {
+            if (dataLayer != null) {
+                dataLayer.disconnect();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+
+import com.google.android.gms.wearable.DataMap;
+import com.moyinoluwa.radarwatchface.common.BackgroundAssets;
+import com.moyinoluwa.radarwatchface.common.DataLayer;
+
+/**
+ * Renders the Andela background at the size the watch reports and sends it back as raw pixels,
+ * so the decoding and bilinear scaling happen on the phone instead of on the watch.
+ */
+class BackgroundPrerenderer implements DataLayer.Listener {
+
+    private final Resources mResources;
+    private final DataLayer mDataLayer;
+
+    BackgroundPrerenderer(Resources resources, DataLayer dataLayer) {
+        mResources = resources;
+        mDataLayer = dataLayer;
+    }
+
+    @Override
+    public void onDataItem(String path, DataMap dataMap, byte[] asset) {
+        if (!BackgroundAssets.PATH_SURFACE_SIZE.equals(path)) {
+            return;
+        }
+
+        int width = BackgroundAssets.getWidth(dataMap);
+        if (width <= 0) {
+            return;
+        }
+
+        Bitmap background = BackgroundAssets.renderAndelaBackground(mResources, width);
+        BackgroundAssets.publishBackground(mDataLayer, background);
+        background.recycle();
+    }
+
+    @Override
+    public void onDataItemMissing(String path) {
+    }
+}
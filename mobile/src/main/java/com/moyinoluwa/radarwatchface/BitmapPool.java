@@ -0,0 +1,54 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small pool of frame bitmaps shared by the previews, so rows being scrolled in and out of the
+ * list reuse each other's bitmaps instead of allocating new ones.
+ */
+class BitmapPool {
+
+    private final int mMaxFreeBitmaps;
+    private final List<Bitmap> mFreeBitmaps = new ArrayList<>();
+
+    private int mAllocationCount;
+
+    BitmapPool(int maxFreeBitmaps) {
+        mMaxFreeBitmaps = maxFreeBitmaps;
+    }
+
+    /**
+     * Returns a free bitmap of the given size, allocating one only if none is available. The
+     * contents are left over from the last user; callers are expected to draw every pixel.
+     */
+    Bitmap acquire(int width, int height) {
+        for (int i = mFreeBitmaps.size() - 1; i >= 0; i--) {
+            Bitmap bitmap = mFreeBitmaps.get(i);
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                mFreeBitmaps.remove(i);
+                return bitmap;
+            }
+        }
+
+        mAllocationCount++;
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    void release(Bitmap bitmap) {
+        if (mFreeBitmaps.size() < mMaxFreeBitmaps) {
+            mFreeBitmaps.add(bitmap);
+        } else {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * Returns how many bitmaps the pool has had to allocate.
+     */
+    int getAllocationCount() {
+        return mAllocationCount;
+    }
+}
@@ -0,0 +1,155 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.support.v7.app.AppCompatActivity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import com.moyinoluwa.radarwatchface.common.AndelaFaceRenderer;
+import com.moyinoluwa.radarwatchface.common.RadarFaceRenderer;
+import com.moyinoluwa.radarwatchface.common.WatchFaceRenderer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists live previews of both faces, in interactive and ambient mode, at common watch
+ * resolutions. The frame cost of the whole list is shown above it.
+ */
+public class FacePreviewActivity extends AppCompatActivity {
+
+    private static final long STATS_UPDATE_RATE_MS = TimeUnit.SECONDS.toMillis(1);
+
+    // Frames are shared between rows of the same resolution; a few spares cover scrolling.
+    private static final int MAX_FREE_BITMAPS = 4;
+
+    private static final int FACE_RADAR = 0;
+    private static final int FACE_ANDELA = 1;
+
+    private static final int[] SURFACE_SIZES = {320, 400};
+
+    private final Handler mHandler = new Handler();
+    private final BitmapPool mBitmapPool = new BitmapPool(MAX_FREE_BITMAPS);
+    private final FrameStats mFrameStats = new FrameStats();
+
+    private TextView mStatsView;
+
+    private final Runnable mStatsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mStatsView.setText(getString(R.string.preview_stats,
+                    mFrameStats.getFrameCount(),
+                    mFrameStats.getAverageMs(),
+                    mFrameStats.getMaxMs(),
+                    mBitmapPool.getAllocationCount()));
+            mHandler.postDelayed(this, STATS_UPDATE_RATE_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_face_preview);
+
+        mStatsView = (TextView) findViewById(R.id.preview_stats);
+        ListView listView = (ListView) findViewById(R.id.preview_list);
+        listView.setAdapter(new PreviewAdapter());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mHandler.post(mStatsRunnable);
+    }
+
+    @Override
+    protected void onPause() {
+        mHandler.removeCallbacks(mStatsRunnable);
+        super.onPause();
+    }
+
+    /**
+     * One row per face, mode and resolution. Each row keeps its own renderer, created the first
+     * time the row is shown, since renderers hold the mode and surface size they draw for.
+     */
+    private class PreviewAdapter extends BaseAdapter {
+
+        private static final int MODES = 2;
+
+        private final WatchFaceRenderer[] mRenderers = new WatchFaceRenderer[getCount()];
+
+        @Override
+        public int getCount() {
+            return 2 * MODES * SURFACE_SIZES.length;
+        }
+
+        @Override
+        public WatchFaceRenderer getItem(int position) {
+            if (mRenderers[position] == null) {
+                mRenderers[position] = createRenderer(position);
+            }
+            return mRenderers[position];
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            View view = convertView;
+            if (view == null) {
+                view = LayoutInflater.from(parent.getContext())
+                        .inflate(R.layout.item_face_preview, parent, false);
+            }
+
+            FacePreviewView previewView = (FacePreviewView) view.findViewById(R.id.face_preview);
+            previewView.bind(getItem(position), surfaceSize(position), mBitmapPool, mFrameStats);
+
+            TextView labelView = (TextView) view.findViewById(R.id.face_label);
+            labelView.setText(getString(R.string.preview_label,
+                    getString(face(position) == FACE_RADAR ? R.string.my_analog_name : R.string.my_digital_name),
+                    getString(isAmbient(position) ? R.string.preview_ambient : R.string.preview_interactive),
+                    surfaceSize(position)));
+
+            return view;
+        }
+
+        private WatchFaceRenderer createRenderer(int position) {
+            WatchFaceRenderer renderer;
+            if (face(position) == FACE_RADAR) {
+                RadarFaceRenderer radarRenderer = new RadarFaceRenderer(FacePreviewActivity.this);
+                // The watch ships with the mechanical second hand on.
+                radarRenderer.setMechanicalTick(true);
+                renderer = radarRenderer;
+            } else {
+                AndelaFaceRenderer andelaRenderer = new AndelaFaceRenderer(FacePreviewActivity.this);
+                // The phone renders the background itself rather than asking itself for one.
+                andelaRenderer.useLocalBackground();
+                renderer = andelaRenderer;
+            }
+
+            int size = surfaceSize(position);
+            renderer.setSurfaceSize(size, size);
+            renderer.setAmbientMode(isAmbient(position));
+            return renderer;
+        }
+
+        private int face(int position) {
+            return position / (MODES * SURFACE_SIZES.length);
+        }
+
+        private boolean isAmbient(int position) {
+            return (position / SURFACE_SIZES.length) % MODES == 1;
+        }
+
+        private int surfaceSize(int position) {
+            return SURFACE_SIZES[position % SURFACE_SIZES.length];
+        }
+    }
+}
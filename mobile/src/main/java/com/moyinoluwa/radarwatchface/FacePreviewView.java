@@ -0,0 +1,117 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.moyinoluwa.radarwatchface.common.WatchFaceRenderer;
+
+import java.util.Calendar;
+
+/**
+ * Shows a live watch face. The face is rendered at watch resolution into a bitmap borrowed from
+ * a {@link BitmapPool} and scaled into the view. A new frame is only rendered when the face itself
+ * would update; redraws in between (while the list scrolls, for example) just copy the last frame.
+ */
+public class FacePreviewView extends View {
+
+    private final Paint mBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mDestination = new Rect();
+    private final Calendar mCalendar = Calendar.getInstance();
+    private final Canvas mFrameCanvas = new Canvas();
+
+    private final Runnable mFrameDueRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mFrameDue = true;
+            invalidate();
+        }
+    };
+
+    private WatchFaceRenderer mRenderer;
+    private int mSurfaceSize;
+    private BitmapPool mBitmapPool;
+    private FrameStats mFrameStats;
+
+    private Bitmap mFrame;
+    private boolean mFrameDue;
+
+    public FacePreviewView(Context context) {
+        super(context);
+    }
+
+    public FacePreviewView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    /**
+     * Starts showing {@code renderer}, drawn on a square surface of {@code surfaceSize} pixels.
+     */
+    void bind(WatchFaceRenderer renderer, int surfaceSize, BitmapPool bitmapPool, FrameStats frameStats) {
+        // Keep the current frame bitmap if the new face is drawn at the same size.
+        if (mFrame != null && surfaceSize != mSurfaceSize) {
+            releaseFrame();
+        }
+
+        mRenderer = renderer;
+        mSurfaceSize = surfaceSize;
+        mBitmapPool = bitmapPool;
+        mFrameStats = frameStats;
+
+        removeCallbacks(mFrameDueRunnable);
+        mFrameDue = true;
+        invalidate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(mFrameDueRunnable);
+        releaseFrame();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mRenderer == null) {
+            return;
+        }
+
+        if (mFrame == null) {
+            mFrame = mBitmapPool.acquire(mSurfaceSize, mSurfaceSize);
+            mFrameCanvas.setBitmap(mFrame);
+            mFrameDue = true;
+        }
+
+        if (mFrameDue) {
+            renderFrame();
+        }
+
+        mDestination.set(0, 0, getWidth(), getHeight());
+        canvas.drawBitmap(mFrame, null, mDestination, mBitmapPaint);
+    }
+
+    private void renderFrame() {
+        long now = System.currentTimeMillis();
+        mCalendar.setTimeInMillis(now);
+
+        long startNs = System.nanoTime();
+        mRenderer.draw(mFrameCanvas, mCalendar);
+        mFrameStats.record(System.nanoTime() - startNs);
+
+        mFrameDue = false;
+        removeCallbacks(mFrameDueRunnable);
+        postDelayed(mFrameDueRunnable, mRenderer.delayToNextFrameMs(now));
+    }
+
+    private void releaseFrame() {
+        if (mFrame != null) {
+            mFrameCanvas.setBitmap(null);
+            mBitmapPool.release(mFrame);
+            mFrame = null;
+        }
+    }
+}
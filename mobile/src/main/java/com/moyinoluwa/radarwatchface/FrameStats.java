@@ -0,0 +1,31 @@
+package com.moyinoluwa.radarwatchface;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running totals of how long the previews take to render a frame.
+ */
+class FrameStats {
+
+    private int mFrameCount;
+    private long mTotalNs;
+    private long mMaxNs;
+
+    void record(long frameNs) {
+        mFrameCount++;
+        mTotalNs += frameNs;
+        mMaxNs = Math.max(mMaxNs, frameNs);
+    }
+
+    int getFrameCount() {
+        return mFrameCount;
+    }
+
+    float getAverageMs() {
+        return (mFrameCount == 0) ? 0f : (float) mTotalNs / mFrameCount / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    float getMaxMs() {
+        return (float) mMaxNs / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,184 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.test.AndroidTestCase;
+import android.test.mock.MockContentResolver;
+
+import com.moyinoluwa.radarwatchface.common.CalendarEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exercises {@link AgendaCache} against a {@link FakeCalendarProvider}. Loads are queued on a
+ * {@link QueuedExecutor} and run by the test, standing in for the background thread.
+ */
+public class AgendaCacheTest extends AndroidTestCase {
+
+    private static final long NOW = TimeUnit.DAYS.toMillis(17000);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private FakeCalendarProvider mProvider;
+    private QueuedExecutor mExecutor;
+    private AgendaCache mAgendaCache;
+    private int mLoadedCount;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mProvider = new FakeCalendarProvider();
+        mProvider.attachInfo(getContext(), null);
+
+        MockContentResolver resolver = new MockContentResolver();
+        resolver.addProvider(FakeCalendarProvider.AUTHORITY, mProvider);
+
+        mProvider.putInstance(3, NOW + 5 * HOUR, NOW + 6 * HOUR, "Retro");
+        mProvider.putInstance(1, NOW + HOUR, NOW + 2 * HOUR, "Standup");
+        mProvider.putInstance(2, NOW + 3 * HOUR, NOW + 4 * HOUR, "Lunch");
+        // Outside the loaded window.
+        mProvider.putInstance(4, NOW + 30 * HOUR, NOW + 31 * HOUR, "Tomorrow");
+
+        mExecutor = new QueuedExecutor();
+        mAgendaCache = new AgendaCache(resolver, FakeCalendarProvider.INSTANCES_URI, mExecutor);
+        mAgendaCache.setListener(new AgendaCache.Listener() {
+            @Override
+            public void onAgendaLoaded() {
+                mLoadedCount++;
+            }
+        });
+        mAgendaCache.requestLoad(NOW);
+        mExecutor.runAll();
+    }
+
+    public void testLoadsWindowOnce() {
+        assertEquals(3, mAgendaCache.size());
+
+        mAgendaCache.getNextEvent(NOW);
+        mAgendaCache.getNextEvent(NOW + HOUR);
+        mAgendaCache.getNextEvent(NOW + 4 * HOUR);
+
+        assertEquals(0, mExecutor.size());
+        assertEquals(1, mProvider.getQueryCount());
+        assertEquals(1, mLoadedCount);
+    }
+
+    public void testFindsNextEventByStartTime() {
+        assertEquals("Standup", mAgendaCache.getNextEvent(NOW).title);
+        assertEquals("Standup", mAgendaCache.getNextEvent(NOW + HOUR).title);
+        assertEquals("Lunch", mAgendaCache.getNextEvent(NOW + HOUR + 1).title);
+        assertEquals("Retro", mAgendaCache.getNextEvent(NOW + 4 * HOUR).title);
+        assertNull(mAgendaCache.getNextEvent(NOW + 6 * HOUR));
+    }
+
+    public void testSortsRowsFromProviderIgnoringSortOrder() {
+        mProvider.setIgnoreSortOrder(true);
+        mProvider.putInstance(5, NOW + 30 * 60 * 1000, NOW + HOUR, "Coffee");
+        mProvider.putInstance(6, NOW + HOUR, NOW + 2 * HOUR, "Standup notes");
+
+        mAgendaCache.onChange();
+        mExecutor.runAll();
+
+        assertEquals(5, mAgendaCache.size());
+        assertEquals("Coffee", mAgendaCache.getNextEvent(NOW).title);
+        // Equal starts keep the order they arrived in.
+        assertEquals("Standup", mAgendaCache.getNextEvent(NOW + 30 * 60 * 1000 + 1).title);
+        assertEquals("Lunch", mAgendaCache.getNextEvent(NOW + HOUR + 1).title);
+        assertEquals("Retro", mAgendaCache.getNextEvent(NOW + 4 * HOUR).title);
+    }
+
+    public void testReadingNeverQueriesTheProvider() {
+        MockContentResolver resolver = new MockContentResolver();
+        resolver.addProvider(FakeCalendarProvider.AUTHORITY, mProvider);
+        AgendaCache agendaCache = new AgendaCache(resolver, FakeCalendarProvider.INSTANCES_URI,
+                mExecutor);
+
+        // The first frame only queues the load and draws without an event.
+        assertNull(agendaCache.getNextEvent(NOW));
+        assertNull(agendaCache.getNextEvent(NOW + 1000));
+        assertEquals(1, mProvider.getQueryCount());
+        assertEquals(1, mExecutor.size());
+
+        mExecutor.runAll();
+
+        assertEquals(2, mProvider.getQueryCount());
+        assertEquals("Standup", agendaCache.getNextEvent(NOW).title);
+    }
+
+    public void testChangeReloadsWindow() {
+        mProvider.removeEvent(2);
+        mProvider.putInstance(2, NOW + 30 * 60 * 1000, NOW + HOUR, "Early lunch");
+
+        mAgendaCache.onChange();
+        // The old window keeps answering until the reload has run.
+        assertEquals("Standup", mAgendaCache.getNextEvent(NOW).title);
+        mExecutor.runAll();
+
+        assertEquals(2, mAgendaCache.getQueryCount());
+        assertEquals(3, mAgendaCache.size());
+        assertEquals("Early lunch", mAgendaCache.getNextEvent(NOW).title);
+        assertEquals(2, mLoadedCount);
+    }
+
+    public void testUnchangedEventsKeepTheirInstance() {
+        CalendarEvent standup = mAgendaCache.getNextEvent(NOW);
+        mProvider.putInstance(5, NOW + 2 * HOUR, NOW + 3 * HOUR, "Review");
+
+        mAgendaCache.onChange();
+        mExecutor.runAll();
+
+        assertEquals(4, mAgendaCache.size());
+        assertSame(standup, mAgendaCache.getNextEvent(NOW));
+        assertEquals("Review", mAgendaCache.getNextEvent(NOW + HOUR + 1).title);
+    }
+
+    public void testDeletedRowIsDropped() {
+        mProvider.removeEvent(1);
+
+        mAgendaCache.onChange();
+        mExecutor.runAll();
+
+        assertEquals(2, mAgendaCache.size());
+        assertEquals("Lunch", mAgendaCache.getNextEvent(NOW).title);
+    }
+
+    public void testChangesBeforeTheLoadRunsShareOneQuery() {
+        mAgendaCache.onChange();
+        mAgendaCache.onChange();
+        mAgendaCache.onChange();
+        mExecutor.runAll();
+
+        assertEquals(2, mAgendaCache.getQueryCount());
+    }
+
+    public void testReloadsOncePastHalfTheWindow() {
+        mAgendaCache.getNextEvent(NOW + AgendaCache.WINDOW_MS / 2);
+        mExecutor.runAll();
+
+        assertEquals(2, mAgendaCache.getQueryCount());
+        assertEquals("Tomorrow", mAgendaCache.getNextEvent(NOW + AgendaCache.WINDOW_MS / 2).title);
+    }
+
+    /**
+     * Holds on to submitted tasks until {@link #runAll()} is called.
+     */
+    private static class QueuedExecutor implements Executor {
+
+        private final List<Runnable> mTasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        int size() {
+            return mTasks.size();
+        }
+
+        void runAll() {
+            while (!mTasks.isEmpty()) {
+                mTasks.remove(0).run();
+            }
+        }
+    }
+}
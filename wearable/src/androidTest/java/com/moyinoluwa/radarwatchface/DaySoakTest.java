@@ -0,0 +1,368 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.Debug;
+import android.test.InstrumentationTestCase;
+import android.test.InstrumentationTestRunner;
+import android.test.mock.MockContentResolver;
+import android.util.Log;
+
+import com.moyinoluwa.radarwatchface.common.AndelaFaceRenderer;
+import com.moyinoluwa.radarwatchface.common.RadarFaceRenderer;
+import com.moyinoluwa.radarwatchface.common.WatchFaceRenderer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays 24 hours of ticks and ambient/interactive transitions against both faces using a
+ * {@link SimulatedClock}. The replay starts a minute before midnight on the day US clocks spring
+ * forward, so it covers the midnight and noon rollovers, the AM/PM switch and a DST shift.
+ *
+ * <p>The faces are driven through the same {@link FaceController} the engines use: ambient
+ * changes go through its ambient callback, frames are drawn by it (including the step count and
+ * agenda reads), and in interactive mode the clock moves on by the delay its update timer would
+ * wait. In ambient mode the clock moves on to the next minute, as the system's time tick would.
+ *
+ * <p>Each hour the face is interactive for the two minutes around the top of the hour and ambient
+ * for the rest. Frames at the checkpoints below are compared against
+ * {@code golden/<face>_<day>_<checkpoint>_<mode>.png} in the test assets, and the test fails when
+ * a frame differs from its golden. Frames without a golden are listed in the report and written
+ * out, but don't fail the test, so the day's profile is still logged on every build. To record
+ * goldens on the reference device, run with {@code -e recordGoldens true}; every checkpoint frame
+ * is then written to {@code files/soak/} of the app under test, from where it can be pulled into
+ * {@code src/androidTest/assets/golden/}.
+ */
+public class DaySoakTest extends InstrumentationTestCase {
+
+    private static final String TAG = "DaySoakTest";
+
+    private static final int SURFACE_SIZE = 320;
+
+    private static final long REPLAY_DURATION_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    // Steps reported by the fake sensor at the top of every replayed hour.
+    private static final int STEPS_PER_HOUR = 250;
+
+    /*
+     * Local times (hour of day, minute, second) at which frames are checked against golden frames.
+     * 01:59:59 is followed directly by 03:00:00 on the replayed day.
+     */
+    private static final int[][] CHECKPOINTS = {
+            {23, 59, 59},
+            {0, 0, 0},
+            {1, 59, 59},
+            {3, 0, 0},
+            {6, 30, 0},
+            {11, 59, 59},
+            {12, 0, 0},
+    };
+
+    /*
+     * Two pixels are treated as equal when no channel differs by more than this, which absorbs
+     * small anti-aliasing differences between devices.
+     */
+    private static final int CHANNEL_TOLERANCE = 8;
+
+    private TimeZone mDefaultTimeZone;
+    private boolean mRecordGoldens;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDefaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+
+        if (getInstrumentation() instanceof InstrumentationTestRunner) {
+            Bundle arguments = ((InstrumentationTestRunner) getInstrumentation()).getArguments();
+            mRecordGoldens = arguments != null
+                    && Boolean.parseBoolean(arguments.getString("recordGoldens"));
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        WatchClock.set(null);
+        TimeZone.setDefault(mDefaultTimeZone);
+        super.tearDown();
+    }
+
+    public void testRadarFaceDay() throws IOException {
+        Context context = getInstrumentation().getTargetContext();
+        assertMatchesGoldens(replayDay("radar", new RadarFaceRenderer(context)));
+    }
+
+    public void testAndelaFaceDay() throws IOException {
+        Context context = getInstrumentation().getTargetContext();
+        AndelaFaceRenderer renderer = new AndelaFaceRenderer(context);
+        // Replay as a watch with no phone in reach, which decodes the background itself.
+        renderer.useLocalBackground();
+        assertMatchesGoldens(replayDay("andela", renderer));
+    }
+
+    /*
+     * Debug's allocation counting is deprecated, but it is still the only way to count the
+     * allocations of a single thread without a profiler attached. It only feeds the report and
+     * never decides whether the test passes.
+     */
+    @SuppressWarnings("deprecation")
+    private SoakReport replayDay(String faceName, WatchFaceRenderer renderer) throws IOException {
+        Calendar start = Calendar.getInstance();
+        start.clear();
+        start.set(2016, Calendar.MARCH, 12, 23, 59, 0);
+
+        SimulatedClock clock = new SimulatedClock(start.getTimeInMillis());
+        WatchClock.set(clock);
+
+        Bitmap frame = Bitmap.createBitmap(SURFACE_SIZE, SURFACE_SIZE, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(frame);
+        Calendar calendar = Calendar.getInstance();
+        SoakReport report = new SoakReport(faceName);
+
+        SharedPreferences stepPreferences = getInstrumentation().getTargetContext()
+                .getSharedPreferences("soak_step_counter", Context.MODE_PRIVATE);
+        stepPreferences.edit().clear().commit();
+        // Booted an hour before the replay starts.
+        long counterStartMs = start.getTimeInMillis() - HOUR_MS;
+        StepCounter stepCounter = new StepCounter(new PreferencesStepStore(stepPreferences),
+                counterStartMs, TimeZone.getDefault());
+        FaceController controller = new FaceController(renderer, stepCounter);
+        controller.setAgendaCache(createAgendaCache(start.getTimeInMillis()));
+        controller.setTimeZone(TimeZone.getDefault());
+
+        renderer.setSurfaceSize(SURFACE_SIZE, SURFACE_SIZE);
+        // Behave like a low-bit ambient display, which swaps in the most palettes.
+        renderer.setLowBitAmbient(true);
+
+        long endTimeMs = clock.currentTimeMillis() + REPLAY_DURATION_MS;
+        long nextStepReportMs = clock.currentTimeMillis();
+        long totalSteps = 0;
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        while (clock.currentTimeMillis() < endTimeMs) {
+            calendar.setTimeInMillis(clock.currentTimeMillis());
+
+            if (clock.currentTimeMillis() >= nextStepReportMs) {
+                totalSteps += STEPS_PER_HOUR;
+                stepCounter.onStepCount(totalSteps, clock.currentTimeMillis(),
+                        clock.currentTimeMillis() - counterStartMs);
+                nextStepReportMs += HOUR_MS;
+            }
+
+            if (controller.setAmbientMode(!isInteractiveWindow(calendar))) {
+                report.modeTransitions++;
+            }
+
+            long drawStartNs = System.nanoTime();
+            controller.draw(canvas);
+            report.drawTimeNs += System.nanoTime() - drawStartNs;
+            report.frames++;
+
+            int checkpoint = checkpointIndex(calendar);
+            if (checkpoint >= 0) {
+                // Keep the golden frame bookkeeping out of the allocation count.
+                Debug.stopAllocCounting();
+                compareWithGolden(report, frame, calendar, checkpoint, isInAmbientMode(controller));
+                Debug.startAllocCounting();
+            }
+
+            clock.advance(controller.shouldTimerBeRunning(true)
+                    ? controller.delayToNextFrameMs()
+                    : untilNextTimeTickMs(clock.currentTimeMillis()));
+        }
+        Debug.stopAllocCounting();
+        report.allocations = Debug.getThreadAllocCount();
+        report.cacheRebuilds = renderer.getCacheRebuildCount();
+
+        Log.i(TAG, report.toString());
+        return report;
+    }
+
+    /*
+     * A calendar with a few events spread over the replayed day, so the agenda reads on the draw
+     * path are exercised and the next event changes a few times.
+     */
+    private AgendaCache createAgendaCache(long startMs) {
+        FakeCalendarProvider provider = new FakeCalendarProvider();
+        provider.attachInfo(getInstrumentation().getContext(), null);
+        provider.putInstance(1, startMs + 2 * HOUR_MS, startMs + 3 * HOUR_MS, "Standup");
+        provider.putInstance(2, startMs + 9 * HOUR_MS, startMs + 10 * HOUR_MS, "Lunch");
+        provider.putInstance(3, startMs + 15 * HOUR_MS, startMs + 16 * HOUR_MS, "Retro");
+
+        MockContentResolver resolver = new MockContentResolver();
+        resolver.addProvider(FakeCalendarProvider.AUTHORITY, provider);
+        // Loads run inline so every replay sees the same events on the same frames.
+        AgendaCache agendaCache = new AgendaCache(resolver, FakeCalendarProvider.INSTANCES_URI,
+                new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+        agendaCache.requestLoad(startMs);
+        return agendaCache;
+    }
+
+    private static boolean isInAmbientMode(FaceController controller) {
+        return !controller.shouldTimerBeRunning(true);
+    }
+
+    /*
+     * In ambient mode the engines' timer is stopped and the system redraws the face once a
+     * minute, at the top of the minute.
+     */
+    private static long untilNextTimeTickMs(long timeMs) {
+        long minuteMs = TimeUnit.MINUTES.toMillis(1);
+        return minuteMs - (timeMs % minuteMs);
+    }
+
+    /*
+     * Interactive for the last minute of every hour and the first minute of the next one.
+     */
+    private static boolean isInteractiveWindow(Calendar calendar) {
+        int minute = calendar.get(Calendar.MINUTE);
+        return minute == 59 || minute == 0;
+    }
+
+    private static int checkpointIndex(Calendar calendar) {
+        int hour = calendar.get(Calendar.HOUR_OF_DAY);
+        int minute = calendar.get(Calendar.MINUTE);
+        int second = calendar.get(Calendar.SECOND);
+        for (int i = 0; i < CHECKPOINTS.length; i++) {
+            if (CHECKPOINTS[i][0] == hour && CHECKPOINTS[i][1] == minute
+                    && CHECKPOINTS[i][2] == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void compareWithGolden(SoakReport report, Bitmap frame, Calendar calendar,
+            int checkpoint, boolean ambient) throws IOException {
+        int[] time = CHECKPOINTS[checkpoint];
+        // The replay passes midnight twice, so the day of month keeps the names apart.
+        String name = String.format(Locale.US, "%s_%02d_%02d%02d%02d_%s", report.faceName,
+                calendar.get(Calendar.DAY_OF_MONTH), time[0], time[1], time[2],
+                ambient ? "ambient" : "interactive");
+
+        if (mRecordGoldens) {
+            writeFrame(name, frame);
+            return;
+        }
+
+        Bitmap golden = loadGolden(name);
+        if (golden == null) {
+            writeFrame(name, frame);
+            report.missingGoldens.add(name);
+            return;
+        }
+
+        if (!framesMatch(golden, frame)) {
+            writeFrame(name, frame);
+            report.visualDiffs.add(name);
+        }
+        golden.recycle();
+    }
+
+    private Bitmap loadGolden(String name) {
+        Context testContext = getInstrumentation().getContext();
+        try {
+            InputStream in = testContext.getAssets().open("golden/" + name + ".png");
+            try {
+                return BitmapFactory.decodeStream(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeFrame(String name, Bitmap frame) throws IOException {
+        File dir = new File(getInstrumentation().getTargetContext().getFilesDir(), "soak");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        FileOutputStream out = new FileOutputStream(new File(dir, name + ".png"));
+        try {
+            frame.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static boolean framesMatch(Bitmap golden, Bitmap frame) {
+        if (golden.getWidth() != frame.getWidth() || golden.getHeight() != frame.getHeight()) {
+            return false;
+        }
+        for (int y = 0; y < frame.getHeight(); y++) {
+            for (int x = 0; x < frame.getWidth(); x++) {
+                int expected = golden.getPixel(x, y);
+                int actual = frame.getPixel(x, y);
+                if (Math.abs(Color.red(expected) - Color.red(actual)) > CHANNEL_TOLERANCE
+                        || Math.abs(Color.green(expected) - Color.green(actual)) > CHANNEL_TOLERANCE
+                        || Math.abs(Color.blue(expected) - Color.blue(actual)) > CHANNEL_TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void assertMatchesGoldens(SoakReport report) {
+        if (mRecordGoldens) {
+            return;
+        }
+        if (!report.missingGoldens.isEmpty()) {
+            Log.w(TAG, "No golden frame checked in for: " + report.missingGoldens
+                    + "; record them with -e recordGoldens true");
+        }
+        assertTrue("Frames differ from golden: " + report.visualDiffs, report.visualDiffs.isEmpty());
+    }
+
+    /**
+     * Totals gathered over one replayed day of a single face.
+     */
+    private static class SoakReport {
+        final String faceName;
+        final List<String> visualDiffs = new ArrayList<>();
+        final List<String> missingGoldens = new ArrayList<>();
+        int frames;
+        int modeTransitions;
+        long drawTimeNs;
+        int allocations;
+        int cacheRebuilds;
+
+        SoakReport(String faceName) {
+            this.faceName = faceName;
+        }
+
+        @Override
+        public String toString() {
+            return faceName + ": " + frames + " frames, "
+                    + modeTransitions + " mode transitions, "
+                    + TimeUnit.NANOSECONDS.toMillis(drawTimeNs) + " ms drawing, "
+                    + allocations + " allocations, "
+                    + cacheRebuilds + " cache rebuilds, "
+                    + visualDiffs.size() + " visual diffs, "
+                    + missingGoldens.size() + " frames without a golden";
+        }
+    }
+}
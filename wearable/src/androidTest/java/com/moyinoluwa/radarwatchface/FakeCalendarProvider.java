@@ -0,0 +1,129 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.CalendarContract;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Stands in for the calendar instances provider. Answers {@code <instances>/<begin>/<end>}
+ * queries from an in-memory list of instances and keeps track of the queries it served. Rows are
+ * sorted by begin when a sort order is given, unless told to ignore it.
+ */
+public class FakeCalendarProvider extends ContentProvider {
+
+    static final String AUTHORITY = "com.moyinoluwa.radarwatchface.test.calendar";
+    static final Uri INSTANCES_URI = Uri.parse("content://" + AUTHORITY + "/instances");
+
+    private final List<Object[]> mInstances = new ArrayList<>();
+
+    private int mQueryCount;
+    private boolean mIgnoreSortOrder;
+
+    void putInstance(long eventId, long begin, long end, String title) {
+        mInstances.add(new Object[]{eventId, begin, end, title});
+    }
+
+    void removeEvent(long eventId) {
+        for (int i = mInstances.size() - 1; i >= 0; i--) {
+            if ((Long) mInstances.get(i)[0] == eventId) {
+                mInstances.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Makes queries return rows in the order they were put, like a provider that ignores the
+     * sort order.
+     */
+    void setIgnoreSortOrder(boolean ignoreSortOrder) {
+        mIgnoreSortOrder = ignoreSortOrder;
+    }
+
+    int getQueryCount() {
+        return mQueryCount;
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+            String sortOrder) {
+        mQueryCount++;
+
+        List<String> segments = uri.getPathSegments();
+        long windowStart = Long.parseLong(segments.get(segments.size() - 2));
+        long windowEnd = Long.parseLong(segments.get(segments.size() - 1));
+
+        List<Object[]> instances = new ArrayList<>(mInstances);
+        if (sortOrder != null && !mIgnoreSortOrder) {
+            // Only the ascending begin order used by AgendaCache is understood.
+            Collections.sort(instances, new Comparator<Object[]>() {
+                @Override
+                public int compare(Object[] a, Object[] b) {
+                    return ((Long) a[1]).compareTo((Long) b[1]);
+                }
+            });
+        }
+
+        MatrixCursor cursor = new MatrixCursor(projection);
+        for (Object[] instance : instances) {
+            long begin = (Long) instance[1];
+            if (begin < windowStart || begin >= windowEnd) {
+                continue;
+            }
+
+            Object[] row = new Object[projection.length];
+            for (int i = 0; i < projection.length; i++) {
+                row[i] = column(instance, projection[i]);
+            }
+            cursor.addRow(row);
+        }
+        return cursor;
+    }
+
+    private static Object column(Object[] instance, String name) {
+        switch (name) {
+            case CalendarContract.Instances.EVENT_ID:
+                return instance[0];
+            case CalendarContract.Instances.BEGIN:
+                return instance[1];
+            case CalendarContract.Instances.END:
+                return instance[2];
+            case CalendarContract.Instances.TITLE:
+                return instance[3];
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,22 @@
+package com.moyinoluwa.radarwatchface;
+
+/**
+ * {@link WatchClock} that only moves when told to, so a whole day can be replayed in seconds.
+ */
+class SimulatedClock extends WatchClock {
+
+    private long mTimeMillis;
+
+    SimulatedClock(long startTimeMillis) {
+        mTimeMillis = startTimeMillis;
+    }
+
+    @Override
+    long currentTimeMillis() {
+        return mTimeMillis;
+    }
+
+    void advance(long deltaMillis) {
+        mTimeMillis += deltaMillis;
+    }
+}
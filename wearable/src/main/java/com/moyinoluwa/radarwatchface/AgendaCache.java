@@ -0,0 +1,288 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.Manifest;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.provider.CalendarContract;
+import android.support.v4.content.ContextCompat;
+import android.support.wearable.provider.WearableCalendarContract;
+
+import com.moyinoluwa.radarwatchface.common.CalendarEvent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory copy of the upcoming calendar events, so the faces can show the next event without
+ * querying the calendar provider on every tick.
+ *
+ * <p>The next {@link #WINDOW_MS} of event instances is loaded on a background executor into an
+ * array sorted by start time, which then replaces the previous one in a single write.
+ * {@link #getNextEvent(long)} is a binary search over whichever array is current, so the draw
+ * path never waits for the provider; it only asks for a new window to be loaded once the time
+ * has moved past the middle of the current one.
+ *
+ * <p>The calendar provider reports changes on its base URI rather than per event, so every
+ * change reloads the window. Rows that come back unchanged keep their {@link CalendarEvent}
+ * instance, which lets the renderers skip rebuilding the next event's text.
+ */
+class AgendaCache {
+
+    static final long WINDOW_MS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String[] PROJECTION = {
+            CalendarContract.Instances.EVENT_ID,
+            CalendarContract.Instances.BEGIN,
+            CalendarContract.Instances.END,
+            CalendarContract.Instances.TITLE,
+    };
+
+    private static final int INDEX_EVENT_ID = 0;
+    private static final int INDEX_BEGIN = 1;
+    private static final int INDEX_END = 2;
+    private static final int INDEX_TITLE = 3;
+
+    private static final String SORT_ORDER = CalendarContract.Instances.BEGIN + " ASC";
+
+    interface Listener {
+
+        /**
+         * Called on the loading thread after a newly loaded window has replaced the old one.
+         */
+        void onAgendaLoaded();
+    }
+
+    private final ContentResolver mContentResolver;
+    private final Uri mInstancesUri;
+    private final Executor mExecutor;
+
+    // Change notifications are delivered on a binder thread and only queue a reload.
+    private final ContentObserver mObserver = new ContentObserver(null) {
+        @Override
+        public void onChange(boolean selfChange) {
+            AgendaCache.this.onChange();
+        }
+    };
+
+    private final Runnable mLoadTask = new Runnable() {
+        @Override
+        public void run() {
+            // Cleared first, so a change arriving during the query queues another load.
+            mLoadQueued.set(false);
+            load(mRequestedWindowStart);
+        }
+    };
+
+    private final AtomicBoolean mLoadQueued = new AtomicBoolean();
+
+    // Start of the window most recently asked for; loads may still be catching up with it.
+    private volatile long mRequestedWindowStart;
+    private volatile boolean mRequested;
+
+    // The current window. Replaced as a whole, never modified once published.
+    private volatile Window mWindow;
+
+    private volatile Listener mListener;
+
+    private volatile int mQueryCount;
+
+    AgendaCache(ContentResolver contentResolver, Uri instancesUri, Executor executor) {
+        mContentResolver = contentResolver;
+        mInstancesUri = instancesUri;
+        mExecutor = executor;
+    }
+
+    /**
+     * Returns a cache over the calendar synced to the watch, or {@code null} if the app may not
+     * read the calendar.
+     */
+    static AgendaCache createForWearableCalendar(Context context) {
+        if (!hasCalendarPermission(context)) {
+            return null;
+        }
+        return new AgendaCache(context.getContentResolver(),
+                WearableCalendarContract.Instances.CONTENT_URI, AsyncTask.SERIAL_EXECUTOR);
+    }
+
+    static boolean hasCalendarPermission(Context context) {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.READ_CALENDAR)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
+    void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Starts watching the provider for changes and loads the window starting now in the
+     * background, so it is usually in place before the first frame is drawn.
+     */
+    void register() {
+        mContentResolver.registerContentObserver(mInstancesUri, true, mObserver);
+        requestLoad(WatchClock.get().currentTimeMillis());
+    }
+
+    void unregister() {
+        mContentResolver.unregisterContentObserver(mObserver);
+        mListener = null;
+    }
+
+    /**
+     * Returns the first event starting at or after {@code timeMs}, or {@code null} if there is
+     * none in the loaded window. Never queries the provider itself: once {@code timeMs} has moved
+     * past the middle of the requested window, a new window is queued for loading and the current
+     * one keeps answering until it is replaced.
+     */
+    CalendarEvent getNextEvent(long timeMs) {
+        if (!mRequested || timeMs < mRequestedWindowStart
+                || timeMs >= mRequestedWindowStart + WINDOW_MS / 2) {
+            requestLoad(timeMs);
+        }
+
+        Window window = mWindow;
+        if (window == null) {
+            return null;
+        }
+        int index = window.firstIndexAtOrAfter(timeMs);
+        return (index < window.size) ? window.events[index] : null;
+    }
+
+    /**
+     * Queues a load of the window starting at {@code startMs}. Requests made while a load is
+     * still queued are folded into it.
+     */
+    void requestLoad(long startMs) {
+        mRequestedWindowStart = startMs;
+        mRequested = true;
+        if (mLoadQueued.compareAndSet(false, true)) {
+            mExecutor.execute(mLoadTask);
+        }
+    }
+
+    /**
+     * Brings the cache up to date after the provider reported a change.
+     */
+    void onChange() {
+        if (mRequested) {
+            requestLoad(mRequestedWindowStart);
+        }
+    }
+
+    int getQueryCount() {
+        return mQueryCount;
+    }
+
+    int size() {
+        Window window = mWindow;
+        return (window == null) ? 0 : window.size;
+    }
+
+    /*
+     * Runs on the executor. Queries the window starting at startMs and publishes it.
+     */
+    private void load(long startMs) {
+        Uri.Builder builder = mInstancesUri.buildUpon();
+        ContentUris.appendId(builder, startMs);
+        ContentUris.appendId(builder, startMs + WINDOW_MS);
+
+        mQueryCount++;
+        Cursor cursor = mContentResolver.query(builder.build(), PROJECTION, null, null,
+                SORT_ORDER);
+
+        Window previous = mWindow;
+        Window window = new Window();
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    window.insert(reuseOrCreate(previous,
+                            cursor.getLong(INDEX_EVENT_ID),
+                            cursor.getLong(INDEX_BEGIN),
+                            cursor.getLong(INDEX_END),
+                            cursor.getString(INDEX_TITLE)));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        mWindow = window;
+
+        Listener listener = mListener;
+        if (listener != null) {
+            listener.onAgendaLoaded();
+        }
+    }
+
+    /*
+     * Returns the event from the previous window if the row hasn't changed, or a new one.
+     */
+    private static CalendarEvent reuseOrCreate(Window previous, long eventId, long begin, long end,
+            String title) {
+        if (previous != null) {
+            for (int i = previous.firstIndexAtOrAfter(begin);
+                    i < previous.size && previous.begins[i] == begin; i++) {
+                CalendarEvent event = previous.events[i];
+                if (event.eventId == eventId && event.end == end
+                        && (title == null ? event.title == null : title.equals(event.title))) {
+                    return event;
+                }
+            }
+        }
+        return new CalendarEvent(eventId, begin, end, title);
+    }
+
+    /**
+     * One loaded window of events, sorted by begin. {@link #begins} mirrors {@link #events} so
+     * the search stays on a primitive array.
+     */
+    private static final class Window {
+        long[] begins = new long[16];
+        CalendarEvent[] events = new CalendarEvent[16];
+        int size;
+
+        void insert(CalendarEvent event) {
+            if (size == events.length) {
+                long[] newBegins = new long[size * 2];
+                CalendarEvent[] newEvents = new CalendarEvent[size * 2];
+                System.arraycopy(begins, 0, newBegins, 0, size);
+                System.arraycopy(events, 0, newEvents, 0, size);
+                begins = newBegins;
+                events = newEvents;
+            }
+
+            // Rows come sorted by begin, so they are normally appended. The search is only for
+            // providers that ignore the sort order; it inserts after any events with the same
+            // begin so equal starts keep arrival order.
+            int index = (size == 0 || begins[size - 1] <= event.begin)
+                    ? size : firstIndexAtOrAfter(event.begin + 1);
+            System.arraycopy(begins, index, begins, index + 1, size - index);
+            System.arraycopy(events, index, events, index + 1, size - index);
+            begins[index] = event.begin;
+            events[index] = event;
+            size++;
+        }
+
+        /*
+         * Binary search for the first index whose begin is >= timeMs.
+         */
+        int firstIndexAtOrAfter(long timeMs) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (begins[mid] < timeMs) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -4,27 +4,23 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.content.res.Resources;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.Typeface;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
-import android.support.v4.content.ContextCompat;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
+import android.util.Log;
 import android.view.SurfaceHolder;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Locale;
+import com.moyinoluwa.radarwatchface.common.AndelaBackgroundListener;
+import com.moyinoluwa.radarwatchface.common.AndelaFaceRenderer;
+import com.moyinoluwa.radarwatchface.common.BackgroundAssets;
+import com.moyinoluwa.radarwatchface.common.DataLayer;
+import com.moyinoluwa.radarwatchface.common.WearableDataLayer;
+
 import java.util.TimeZone;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Andela Watch Face
@@ -33,12 +29,6 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
 
     private static final String TAG = "AndelaWatchFace";
 
-    /*
-     * Update rate in milliseconds for interactive mode. We update once a second to advance the
-     * second hand.
-     */
-    private static final long INTERACTIVE_UPDATE_RATE_MS = TimeUnit.SECONDS.toMillis(1);
-
     @Override
     public Engine onCreateEngine() {
         return new Engine();
@@ -48,17 +38,20 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
 
         private boolean mRegisteredTimeZoneReceiver = false;
 
-        private Calendar mCalendar;
+        private AndelaFaceRenderer mRenderer;
 
-        // Variables for painting Background
-        private Paint mBackgroundPaint;
-        private Bitmap mBackgroundBitmap;
+        // Step counts are batched in the sensor hub and picked up by the regular redraws.
+        private StepSource mStepSource;
+        private StepCounter mStepCounter;
 
-        // Watch Face related objects
-        private Paint mHandPaint;
-        private Paint mDatePaint;
+        // Upcoming calendar events, or null if the calendar can't be read.
+        private AgendaCache mAgendaCache;
 
-        private boolean mAmbient;
+        // Delivers the background pre-rendered on the phone for this watch's surface size.
+        private WearableDataLayer mDataLayer;
+
+        // Decides what to draw and when; the engine only forwards callbacks to it.
+        private FaceController mController;
 
         /*
          * Whether the display supports fewer bits for each color in ambient mode.
@@ -72,12 +65,6 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
          */
         private boolean mBurnInProtection;
 
-        private int mWidth;
-        private int mHeight;
-        private float mCenterX;
-        private float mCenterY;
-        private float mScale = 1;
-
         // Handler to update the time once a second in interactive mode.
         private final Handler mUpdateTimeHandler = new Handler() {
             @Override
@@ -85,23 +72,38 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
                 if (R.id.message_update == message.what) {
                     invalidate();
                     if (shouldTimerBeRunning()) {
-                        long timeMs = System.currentTimeMillis();
-                        long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                                - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
+                        long delayMs = mController.delayToNextFrameMs();
                         mUpdateTimeHandler.sendEmptyMessageDelayed(R.id.message_update, delayMs);
                     }
                 }
             }
         };
 
+        // Hands the phone's background to the renderer, or falls back on decoding it here.
+        private DataLayer.Listener mBackgroundListener;
+
         private final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                mCalendar.setTimeZone(TimeZone.getDefault());
+                if (Intent.ACTION_TIMEZONE_CHANGED.equals(intent.getAction())) {
+                    mController.setTimeZone(TimeZone.getDefault());
+                } else {
+                    // A locale change, or a time change, which is also sent when the 12/24-hour
+                    // setting is switched.
+                    mRenderer.updatePalettes();
+                }
                 invalidate();
             }
         };
 
+        // Loads finish on a background thread; redraw so the new next event shows straight away.
+        private final AgendaCache.Listener mAgendaListener = new AgendaCache.Listener() {
+            @Override
+            public void onAgendaLoaded() {
+                postInvalidate();
+            }
+        };
+
         @Override
         public void onCreate(SurfaceHolder holder) {
             super.onCreate(holder);
@@ -110,52 +112,41 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
                     .setCardPeekMode(WatchFaceStyle.PEEK_MODE_VARIABLE)
                     .setBackgroundVisibility(WatchFaceStyle.BACKGROUND_VISIBILITY_INTERRUPTIVE)
                     .setShowSystemUiTime(false)
+                    .setAcceptsTapEvents(true)
                     .build());
 
-            mCalendar = Calendar.getInstance();
-
-            initializeBackground();
-
-            initializeText();
-
-            initializeDate();
-        }
-
-        private void initializeBackground() {
-            mBackgroundPaint = new Paint();
-            mBackgroundPaint.setColor(Color.WHITE);
-
-            final int backgroundResId = R.drawable.custom_andela_background;
-            mBackgroundBitmap = BitmapFactory.decodeResource(getResources(), backgroundResId);
-        }
+            mRenderer = new AndelaFaceRenderer(AndelaWatchFace.this);
 
-        private void initializeText() {
-            Resources resources = AndelaWatchFace.this.getResources();
-            Typeface textTypeface = Typeface.createFromAsset(getAssets(), "fonts/Roboto-Medium.ttf");
+            mStepSource = new SensorStepSource(AndelaWatchFace.this);
+            mStepCounter = new StepCounter(PreferencesStepStore.create(AndelaWatchFace.this),
+                    mStepSource.getCounterStartMs(), TimeZone.getDefault());
+            mStepSource.register(mStepCounter);
 
-            mHandPaint = new Paint();
-            mHandPaint.setColor(ContextCompat.getColor(AndelaWatchFace.this, R.color.andela_text_color));
-            mHandPaint.setAntiAlias(true);
-            mHandPaint.setTextAlign(Paint.Align.CENTER);
-            mHandPaint.setTextSize(resources.getDimension(R.dimen.digital_text_size));
-            mHandPaint.setTypeface(textTypeface);
-        }
+            mController = new FaceController(mRenderer, mStepCounter);
 
-        private void initializeDate() {
-            Resources resources = AndelaWatchFace.this.getResources();
-            Typeface textTypeface = Typeface.createFromAsset(getAssets(), "fonts/Roboto-Medium.ttf");
+            startAgendaCache();
 
-            mDatePaint = new Paint();
-            mDatePaint.setColor(ContextCompat.getColor(AndelaWatchFace.this, R.color.andela_text_color));
-            mDatePaint.setAntiAlias(true);
-            mDatePaint.setTextAlign(Paint.Align.CENTER);
-            mDatePaint.setTextSize(resources.getDimension(R.dimen.date_text_size));
-            mDatePaint.setTypeface(textTypeface);
+            mBackgroundListener = new AndelaBackgroundListener(mRenderer, new Runnable() {
+                @Override
+                public void run() {
+                    invalidate();
+                }
+            });
+            mDataLayer = new WearableDataLayer(AndelaWatchFace.this);
+            mDataLayer.addListener(BackgroundAssets.PATH_ANDELA_BACKGROUND, mBackgroundListener);
+            mDataLayer.connect();
         }
 
         @Override
         public void onDestroy() {
             mUpdateTimeHandler.removeMessages(R.id.message_update);
+            mDataLayer.removeListener(BackgroundAssets.PATH_ANDELA_BACKGROUND, mBackgroundListener);
+            mDataLayer.disconnect();
+            mStepSource.unregister();
+            mStepCounter.save();
+            if (mAgendaCache != null) {
+                mAgendaCache.unregister();
+            }
             super.onDestroy();
         }
 
@@ -164,6 +155,7 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
             super.onPropertiesChanged(properties);
             mLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
             mBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
+            mRenderer.setLowBitAmbient(mLowBitAmbient || mBurnInProtection);
         }
 
         @Override
@@ -175,12 +167,7 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
         @Override
         public void onAmbientModeChanged(boolean inAmbientMode) {
             super.onAmbientModeChanged(inAmbientMode);
-            if (mAmbient != inAmbientMode) {
-                mAmbient = inAmbientMode;
-                if (mLowBitAmbient || mBurnInProtection) {
-                    mHandPaint.setAntiAlias(!inAmbientMode);
-                    mDatePaint.setAntiAlias(!inAmbientMode);
-                }
+            if (mController.setAmbientMode(inAmbientMode)) {
                 invalidate();
             }
 
@@ -194,93 +181,44 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
         @Override
         public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
             super.onSurfaceChanged(holder, format, width, height);
-            mWidth = width;
-            mHeight = height;
-            /*
-             * Find the coordinates of the center point on the screen.
-             * Ignore the window insets so that, on round watches
-             * with a "chin", the watch face is centered on the entire screen,
-             * not just the usable portion.
-             */
-            mCenterX = mWidth / 2f;
-            mCenterY = mHeight / 2f;
-
-            mScale = ((float) width) / (float) mBackgroundBitmap.getWidth();
+            mRenderer.setSurfaceSize(width, height);
 
-            mBackgroundBitmap = Bitmap.createScaledBitmap(mBackgroundBitmap,
-                    (int) (mBackgroundBitmap.getWidth() * mScale),
-                    (int) (mBackgroundBitmap.getHeight() * mScale), true);
+            // Ask the phone for a background rendered at exactly this size.
+            BackgroundAssets.publishSurfaceSize(mDataLayer, width, height);
         }
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
-            long now = System.currentTimeMillis();
-            mCalendar.setTimeInMillis(now);
-
-            drawBackground(canvas);
-
-            drawText(canvas);
-
-            drawDate(canvas);
-        }
-
-        private void drawBackground(Canvas canvas) {
-            if (mAmbient) {
-                canvas.drawColor(Color.BLACK);
-            } else {
-                canvas.drawBitmap(mBackgroundBitmap, 0, 0, mBackgroundPaint);
-            }
-        }
-
-        private void drawText(Canvas canvas) {
-            String timeText;
-            int hour;
-            String thisIsAndela = "#TIA";
-            int timeOfDay = mCalendar.get(Calendar.AM_PM);
-            final String PM = "PM";
-            final String AM = "AM";
-
-            // Replaces the 0 hour with 12
-            hour = (mCalendar.get(Calendar.HOUR) == 0) ? 12 : mCalendar.get(Calendar.HOUR);
-
-            // Adds an AM or PM subscript to the time
-            timeText = (timeOfDay > 0)
-                    ? String.format(Locale.getDefault(), "%d:%02d %s", hour, mCalendar.get(Calendar.MINUTE), PM)
-                    : String.format(Locale.getDefault(), "%d:%02d %s", hour, mCalendar.get(Calendar.MINUTE), AM);
-
-            if (mAmbient) {
-                mHandPaint.setColor(Color.WHITE);
-                canvas.drawText(timeText, mCenterX, mCenterY - 50f, mHandPaint);
-                canvas.drawText(thisIsAndela, mCenterX, mCenterY + 70f, mHandPaint);
-            } else {
-                mHandPaint.setColor(ContextCompat.getColor(AndelaWatchFace.this, R.color.andela_text_color));
-                canvas.drawText(timeText, mCenterX, mCenterY - 50f, mHandPaint);
-            }
-        }
-
-        private void drawDate(Canvas canvas) {
-            SimpleDateFormat simpleDateFormat = new SimpleDateFormat("MMM dd", Locale.getDefault());
-
-            if (mAmbient) {
-                mDatePaint.setColor(Color.WHITE);
-            } else {
-                mDatePaint.setColor(ContextCompat.getColor(AndelaWatchFace.this, R.color.andela_text_color));
-            }
-
-            canvas.drawText(simpleDateFormat.format(mCalendar.getTime()), mCenterX, mCenterY - 20f, mDatePaint);
+            mController.draw(canvas);
         }
 
         @Override
         public void onVisibilityChanged(boolean visible) {
             super.onVisibilityChanged(visible);
 
+            // Hand over any step counts held back by batching; the next redraw shows them.
+            mStepSource.flush();
+
             if (visible) {
                 registerReceiver();
                 // Update time zone in case it changed while we weren't visible.
-                mCalendar.setTimeZone(TimeZone.getDefault());
+                mController.setTimeZone(TimeZone.getDefault());
+                // Same for the locale and 12/24-hour setting the palettes were built with.
+                mRenderer.updatePalettes();
+                // And calendar access, which may have been granted since.
+                if (mAgendaCache == null) {
+                    startAgendaCache();
+                }
                 invalidate();
             } else {
                 unregisterReceiver();
+
+                mStepCounter.save();
+                if (Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, "Step reports: " + mStepCounter.getEventCount() + " in "
+                            + mStepCounter.getWakeupCount() + " wakeups, "
+                            + mStepCounter.getWakeupsSaved() + " wakeups saved by batching");
+                }
             }
 
             /*
@@ -291,12 +229,37 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
             updateTimer();
         }
 
+        @Override
+        public void onTapCommand(int tapType, int x, int y, long eventTime) {
+            if (tapType == TAP_TYPE_TAP && mAgendaCache == null) {
+                Intent intent = new Intent(AndelaWatchFace.this, CalendarPermissionActivity.class);
+                intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+                startActivity(intent);
+            }
+        }
+
+        /*
+         * Starts loading the agenda if the calendar can be read; otherwise the face shows a hint
+         * to tap for access in place of the next event.
+         */
+        private void startAgendaCache() {
+            mAgendaCache = AgendaCache.createForWearableCalendar(AndelaWatchFace.this);
+            mRenderer.setCalendarPermissionNeeded(mAgendaCache == null);
+            if (mAgendaCache != null) {
+                mAgendaCache.setListener(mAgendaListener);
+                mAgendaCache.register();
+                mController.setAgendaCache(mAgendaCache);
+            }
+        }
+
         private void registerReceiver() {
             if (mRegisteredTimeZoneReceiver) {
                 return;
             }
             mRegisteredTimeZoneReceiver = true;
             IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+            filter.addAction(Intent.ACTION_LOCALE_CHANGED);
+            filter.addAction(Intent.ACTION_TIME_CHANGED);
             AndelaWatchFace.this.registerReceiver(mTimeZoneReceiver, filter);
         }
 
@@ -320,7 +283,7 @@ public class AndelaWatchFace extends CanvasWatchFaceService {
          * should only run when we're visible and in interactive mode.
          */
         private boolean shouldTimerBeRunning() {
-            return isVisible() && !isInAmbientMode();
+            return mController.shouldTimerBeRunning(isVisible());
         }
     }
 }
\ No newline at end of file
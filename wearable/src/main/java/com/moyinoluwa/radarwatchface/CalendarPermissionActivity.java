@@ -0,0 +1,32 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.Manifest;
+import android.app.Activity;
+import android.os.Bundle;
+import android.support.v4.app.ActivityCompat;
+
+/**
+ * Asks for access to the calendar when the face is tapped without it. A watch face can't request
+ * a runtime permission itself, so this invisible activity shows the system dialog and finishes;
+ * the faces pick up the new permission the next time they become visible.
+ */
+public class CalendarPermissionActivity extends Activity
+        implements ActivityCompat.OnRequestPermissionsResultCallback {
+
+    private static final int REQUEST_READ_CALENDAR = 1;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (savedInstanceState == null) {
+            ActivityCompat.requestPermissions(this,
+                    new String[]{Manifest.permission.READ_CALENDAR}, REQUEST_READ_CALENDAR);
+        }
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, String[] permissions,
+            int[] grantResults) {
+        finish();
+    }
+}
@@ -0,0 +1,84 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.graphics.Canvas;
+
+import com.moyinoluwa.radarwatchface.common.WatchFaceRenderer;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The part of a watch face engine that decides what to draw and when, kept apart from the
+ * {@link android.support.wearable.watchface.CanvasWatchFaceService.Engine} so it can be driven
+ * by a {@link WatchClock} off the wrist. The engines forward their ambient, time zone, draw and
+ * timer callbacks here and only keep the Android plumbing (handlers, receivers, sensors).
+ */
+class FaceController {
+
+    private final WatchFaceRenderer mRenderer;
+    private final StepCounter mStepCounter;
+    private final Calendar mCalendar = Calendar.getInstance();
+
+    // Upcoming calendar events, or null if the calendar can't be read.
+    private AgendaCache mAgendaCache;
+
+    private boolean mAmbient;
+
+    FaceController(WatchFaceRenderer renderer, StepCounter stepCounter) {
+        mRenderer = renderer;
+        mStepCounter = stepCounter;
+    }
+
+    void setAgendaCache(AgendaCache agendaCache) {
+        mAgendaCache = agendaCache;
+    }
+
+    /**
+     * Forwards an ambient mode change to the renderer. Returns whether the face needs to be
+     * redrawn.
+     */
+    boolean setAmbientMode(boolean inAmbientMode) {
+        if (mAmbient == inAmbientMode) {
+            return false;
+        }
+        mAmbient = inAmbientMode;
+        mRenderer.setAmbientMode(inAmbientMode);
+        return true;
+    }
+
+    void setTimeZone(TimeZone timeZone) {
+        mCalendar.setTimeZone(timeZone);
+        mStepCounter.setTimeZone(timeZone);
+        mRenderer.setTimeZone(timeZone);
+    }
+
+    /**
+     * Draws the face for the current {@link WatchClock} time and returns that time.
+     */
+    long draw(Canvas canvas) {
+        long now = WatchClock.get().currentTimeMillis();
+        mCalendar.setTimeInMillis(now);
+
+        mRenderer.setStepCount(mStepCounter.getStepsToday(now));
+        mRenderer.setNextEvent((mAgendaCache == null) ? null : mAgendaCache.getNextEvent(now));
+        mRenderer.draw(canvas, mCalendar);
+        return now;
+    }
+
+    /**
+     * Returns whether the engine's update timer should be running. The timer should only run
+     * when the face is visible and in interactive mode; in ambient mode the system's once a
+     * minute time tick redraws the face.
+     */
+    boolean shouldTimerBeRunning(boolean visible) {
+        return visible && !mAmbient;
+    }
+
+    /**
+     * Returns how long the update timer should wait before the next frame, measured from the
+     * current {@link WatchClock} time.
+     */
+    long delayToNextFrameMs() {
+        return mRenderer.delayToNextFrameMs(WatchClock.get().currentTimeMillis());
+    }
+}
@@ -0,0 +1,64 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * {@link StepCounter.Store} kept in shared preferences. Both faces share one file, so switching
+ * between them carries the day's count over.
+ */
+class PreferencesStepStore implements StepCounter.Store {
+
+    private static final String PREFERENCES_NAME = "step_counter";
+
+    private static final String KEY_DAY = "day";
+    private static final String KEY_BASELINE = "baseline";
+    private static final String KEY_LATEST_TOTAL = "latest_total";
+    private static final String KEY_UPTIME_MS = "uptime_ms";
+
+    private final SharedPreferences mPreferences;
+
+    PreferencesStepStore(SharedPreferences preferences) {
+        mPreferences = preferences;
+    }
+
+    static PreferencesStepStore create(Context context) {
+        return new PreferencesStepStore(
+                context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE));
+    }
+
+    @Override
+    public boolean hasSavedState() {
+        return mPreferences.contains(KEY_DAY);
+    }
+
+    @Override
+    public int getDay() {
+        return mPreferences.getInt(KEY_DAY, -1);
+    }
+
+    @Override
+    public long getBaseline() {
+        return mPreferences.getLong(KEY_BASELINE, 0);
+    }
+
+    @Override
+    public long getLatestTotal() {
+        return mPreferences.getLong(KEY_LATEST_TOTAL, -1);
+    }
+
+    @Override
+    public long getUptimeMs() {
+        return mPreferences.getLong(KEY_UPTIME_MS, 0);
+    }
+
+    @Override
+    public void save(int day, long baseline, long latestTotal, long uptimeMs) {
+        mPreferences.edit()
+                .putInt(KEY_DAY, day)
+                .putLong(KEY_BASELINE, baseline)
+                .putLong(KEY_LATEST_TOTAL, latestTotal)
+                .putLong(KEY_UPTIME_MS, uptimeMs)
+                .apply();
+    }
+}
@@ -4,22 +4,19 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.content.res.Resources;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.Typeface;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
-import android.support.v4.content.ContextCompat;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
+import android.util.Log;
 import android.view.SurfaceHolder;
 
+import com.moyinoluwa.radarwatchface.common.RadarFaceRenderer;
+
 import java.lang.ref.WeakReference;
-import java.util.Calendar;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
@@ -31,12 +28,6 @@ public class RadarWatchFace extends CanvasWatchFaceService {
 
     private static final String TAG = "RadarWatchFace";
 
-    /**
-     * Update rate in milliseconds for interactive mode. We update once a second to advance the
-     * second hand.
-     */
-    private static final long INTERACTIVE_UPDATE_RATE_MS = TimeUnit.SECONDS.toMillis(1);
-
     /**
      * Handler message id for updating the time periodically in interactive mode.
      */
@@ -71,23 +62,23 @@ public class RadarWatchFace extends CanvasWatchFaceService {
         private final Handler mUpdateTimeHandler = new EngineHandler(this);
         private boolean mRegisteredTimeZoneReceiver = false;
 
-        private Calendar mCalendar;
+        private RadarFaceRenderer mRenderer;
+
+        // Step counts are batched in the sensor hub and picked up by the regular redraws.
+        private StepSource mStepSource;
+        private StepCounter mStepCounter;
 
-        // Variables for painting background
-        private Paint mBackgroundPaint;
+        // Upcoming calendar events, or null if the calendar can't be read.
+        private AgendaCache mAgendaCache;
 
-        // Watch Face Hand related objects
-        private Paint mHourAndMinuteHandPaint;
-        private Paint mSecondHandPaint;
-        private Paint mCirclePaint;
-        private Paint mTickPaint;
-        private Paint radarTextPaint;
-        private Paint hourTextPaint;
-        private float mHourHandLength;
-        private float mMinuteHandLength;
-        private float mSecondHandLength;
+        // Decides what to draw and when; the engine only forwards callbacks to it.
+        private FaceController mController;
 
-        private boolean mAmbient;
+        // Frames drawn during the current minute, reported once the minute is over. Only counted
+        // for the mechanical tick, whose frame rate is worth checking, and with debug logging on.
+        private boolean mCountFrames;
+        private long mFrameCountMinute = -1;
+        private int mFrameCount;
 
         /*
         * Whether the display supports fewer bits for each color in ambient mode. When true, we
@@ -101,19 +92,28 @@ public class RadarWatchFace extends CanvasWatchFaceService {
         */
         private boolean mBurnInProtection;
 
-        private int mWidth;
-        private int mHeight;
-        private float mCenterX;
-        private float mCenterY;
-
         final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                mCalendar.setTimeZone(TimeZone.getDefault());
+                if (Intent.ACTION_TIMEZONE_CHANGED.equals(intent.getAction())) {
+                    mController.setTimeZone(TimeZone.getDefault());
+                } else {
+                    // A locale change, or a time change, which is also sent when the 12/24-hour
+                    // setting is switched.
+                    mRenderer.updatePalettes();
+                }
                 invalidate();
             }
         };
 
+        // Loads finish on a background thread; redraw so the new next event shows straight away.
+        private final AgendaCache.Listener mAgendaListener = new AgendaCache.Listener() {
+            @Override
+            public void onAgendaLoaded() {
+                postInvalidate();
+            }
+        };
+
         @Override
         public void onCreate(SurfaceHolder holder) {
             super.onCreate(holder);
@@ -122,96 +122,33 @@ public class RadarWatchFace extends CanvasWatchFaceService {
                     .setCardPeekMode(WatchFaceStyle.PEEK_MODE_SHORT)
                     .setBackgroundVisibility(WatchFaceStyle.BACKGROUND_VISIBILITY_INTERRUPTIVE)
                     .setShowSystemUiTime(false)
+                    .setAcceptsTapEvents(true)
                     .build());
 
-            mCalendar = Calendar.getInstance();
-
-            initializeBackground();
-
-            initializeRadarTextPaint();
-
-            initializeHourTextPaint();
-
-            initializeTickPaint();
+            mRenderer = new RadarFaceRenderer(RadarWatchFace.this);
 
-            initializeMinuteAndHourHand();
+            boolean mechanicalTick = getResources().getBoolean(R.bool.mechanical_second_hand);
+            mRenderer.setMechanicalTick(mechanicalTick);
+            mCountFrames = mechanicalTick && Log.isLoggable(TAG, Log.DEBUG);
 
-            initializeSecondHand();
+            mStepSource = new SensorStepSource(RadarWatchFace.this);
+            mStepCounter = new StepCounter(PreferencesStepStore.create(RadarWatchFace.this),
+                    mStepSource.getCounterStartMs(), TimeZone.getDefault());
+            mStepSource.register(mStepCounter);
 
-            initializeCenterCircle();
-        }
+            mController = new FaceController(mRenderer, mStepCounter);
 
-        private void initializeBackground() {
-            mBackgroundPaint = new Paint();
-            mBackgroundPaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.radar_background_color));
-        }
-
-        private void initializeMinuteAndHourHand() {
-            Resources resources = RadarWatchFace.this.getResources();
-
-            mHourAndMinuteHandPaint = new Paint();
-            mHourAndMinuteHandPaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.analog_hands));
-            mHourAndMinuteHandPaint.setStrokeWidth(resources.getDimension(R.dimen.analog_hand_stroke));
-            mHourAndMinuteHandPaint.setAntiAlias(true);
-            mHourAndMinuteHandPaint.setStrokeCap(Paint.Cap.SQUARE);
-        }
-
-        private void initializeSecondHand() {
-            Resources resources = RadarWatchFace.this.getResources();
-
-            mSecondHandPaint = new Paint();
-            mSecondHandPaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.analog_hands));
-            mSecondHandPaint.setStrokeWidth(resources.getDimension(R.dimen.tick_hand_stroke));
-            mSecondHandPaint.setAntiAlias(true);
-            mSecondHandPaint.setStrokeCap(Paint.Cap.SQUARE);
-        }
-
-        private void initializeCenterCircle() {
-            mCirclePaint = new Paint();
-            mCirclePaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.analog_hands));
-            mCirclePaint.setAntiAlias(true);
-        }
-
-        private void initializeTickPaint() {
-            Resources resources = RadarWatchFace.this.getResources();
-
-            mTickPaint = new Paint();
-            mTickPaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.tick_color));
-            mTickPaint.setStrokeWidth(resources.getDimension(R.dimen.tick_hand_stroke));
-            mTickPaint.setAntiAlias(true);
-        }
-
-        private void initializeRadarTextPaint() {
-            Resources resources = RadarWatchFace.this.getResources();
-            Typeface radarTextTypeface = Typeface.createFromAsset(getAssets(), "fonts/NexaLight.ttf");
-            float radarTextSize = 60;
-
-            radarTextPaint = new Paint();
-            radarTextPaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.radar_text_color));
-            radarTextPaint.setStrokeWidth(resources.getDimension(R.dimen.radar_hand_stroke));
-            radarTextPaint.setAntiAlias(true);
-            radarTextPaint.setTextAlign(Paint.Align.LEFT);
-            radarTextPaint.setTextSize(radarTextSize);
-            radarTextPaint.setTypeface(radarTextTypeface);
-        }
-
-        private void initializeHourTextPaint() {
-            Resources resources = RadarWatchFace.this.getResources();
-            Typeface radarTextTypeface = Typeface.createFromAsset(getAssets(), "fonts/NexaLight.ttf");
-            float hourTextSize = 20;
-
-            hourTextPaint = new Paint();
-            hourTextPaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.tick_color));
-            hourTextPaint.setStrokeWidth(resources.getDimension(R.dimen.radar_hand_stroke));
-            hourTextPaint.setAntiAlias(true);
-            hourTextPaint.setTextAlign(Paint.Align.LEFT);
-            hourTextPaint.setTextSize(hourTextSize);
-            hourTextPaint.setTypeface(radarTextTypeface);
+            startAgendaCache();
         }
 
         @Override
         public void onDestroy() {
             mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mStepSource.unregister();
+            mStepCounter.save();
+            if (mAgendaCache != null) {
+                mAgendaCache.unregister();
+            }
             super.onDestroy();
         }
 
@@ -220,6 +157,7 @@ public class RadarWatchFace extends CanvasWatchFaceService {
             super.onPropertiesChanged(properties);
             mLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
             mBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
+            mRenderer.setLowBitAmbient(mLowBitAmbient || mBurnInProtection);
         }
 
         @Override
@@ -231,16 +169,7 @@ public class RadarWatchFace extends CanvasWatchFaceService {
         @Override
         public void onAmbientModeChanged(boolean inAmbientMode) {
             super.onAmbientModeChanged(inAmbientMode);
-            if (mAmbient != inAmbientMode) {
-                mAmbient = inAmbientMode;
-                if (mLowBitAmbient || mBurnInProtection) {
-                    mHourAndMinuteHandPaint.setAntiAlias(!inAmbientMode);
-                    mSecondHandPaint.setAntiAlias(!inAmbientMode);
-                    mTickPaint.setAntiAlias(!inAmbientMode);
-                    mCirclePaint.setAntiAlias(!inAmbientMode);
-                    radarTextPaint.setAntiAlias(!inAmbientMode);
-                    hourTextPaint.setAntiAlias(!inAmbientMode);
-                }
+            if (mController.setAmbientMode(inAmbientMode)) {
                 invalidate();
             }
 
@@ -253,164 +182,58 @@ public class RadarWatchFace extends CanvasWatchFaceService {
         public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
             super.onSurfaceChanged(holder, format, width, height);
 
-            mWidth = width;
-            mHeight = height;
-
-            /*
-             * Find the coordinates of the center point on the screen.
-             * Ignore the window insets so that, on round watches
-             * with a "chin", the watch face is centered on the entire screen,
-             * not just the usable portion.
-             */
-            mCenterX = mWidth / 2f;
-            mCenterY = mHeight / 2f;
-
-            // Calculate the lengths of the watch hands and store them in member variables.
-            mHourHandLength = mCenterX - 80;
-            mMinuteHandLength = mCenterX - 50;
-            mSecondHandLength = mCenterX - 20;
+            mRenderer.setSurfaceSize(width, height);
         }
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
-            long now = System.currentTimeMillis();
-            mCalendar.setTimeInMillis(now);
-
-            // Draw the background.
-            drawBackground(canvas);
-
-            // draw 'radar' text
-            drawRadarText(canvas);
-
-            // draw the minute ticks
-            drawMinuteTicks(canvas);
-
-            // draw the hour ticks
-            drawHourTicks(canvas);
-
-            // draw the hour and minute hand
-            drawHourAndMinuteHand(canvas);
-
-            // draw second hand
-            drawSecondHand(canvas);
-
-            // draw center circle
-            drawCircle(canvas);
-        }
+            long now = mController.draw(canvas);
 
-        private void drawBackground(Canvas canvas) {
-            if (isInAmbientMode()) {
-                canvas.drawColor(Color.BLACK);
-            } else {
-                canvas.drawRect(0, 0, canvas.getWidth(), canvas.getHeight(), mBackgroundPaint);
+            if (mCountFrames && !isInAmbientMode()) {
+                countFrame(now);
             }
         }
 
-        private void drawRadarText(Canvas canvas) {
-            String radarText = getString(R.string.my_analog_name).toLowerCase();
-
-            if (isInAmbientMode()) {
-                radarTextPaint.setColor(Color.WHITE);
-            } else {
-                radarTextPaint.setColor(ContextCompat.getColor(RadarWatchFace.this, R.color.radar_text_color));
-            }
-            canvas.drawText(radarText, mCenterX - 75f, mCenterY - 40f, radarTextPaint);
-        }
-
-        private void drawHourTicks(Canvas canvas) {
-
-            // draws the hour values on specific positions on the canvas
-            canvas.drawText("12", mCenterX - 10f, mCenterY - 120f, hourTextPaint);
-            canvas.drawText("1", mCenterX + 60f, mCenterY - 100f, hourTextPaint);
-            canvas.drawText("2", mCenterX + 105f, mCenterY - 57f, hourTextPaint);
-            canvas.drawText("3", mCenterX + 120f, mCenterY + 7f, hourTextPaint);
-            canvas.drawText("4", mCenterX + 105f, mCenterY + 73f, hourTextPaint);
-            canvas.drawText("5", mCenterX + 55f, mCenterY + 120f, hourTextPaint);
-            canvas.drawText("6", mCenterX - 3f, mCenterY + 130f, hourTextPaint);
-            canvas.drawText("7", mCenterX - 69f, mCenterY + 120f, hourTextPaint);
-            canvas.drawText("8", mCenterX - 115f, mCenterY + 73f, hourTextPaint);
-            canvas.drawText("9", mCenterX - 132f, mCenterY + 7f, hourTextPaint);
-            canvas.drawText("10", mCenterX - 115f, mCenterY - 57f, hourTextPaint);
-            canvas.drawText("11", mCenterX - 69f, mCenterY - 100f, hourTextPaint);
-        }
-
-        private void drawMinuteTicks(Canvas canvas) {
-            float innerTickRadius;
-
-            // Doubles the length of the hour tick so that
-            // there is a distinction between the minutes and hours
-            for (int tickIndex = 0; tickIndex < 60; tickIndex++) {
-                if (tickIndex == 0 || (tickIndex % 5) == 0) {
-                    innerTickRadius = mCenterX - 20;
-                } else {
-                    innerTickRadius = mCenterX - 10;
+        private void countFrame(long now) {
+            long minute = TimeUnit.MILLISECONDS.toMinutes(now);
+            if (minute != mFrameCountMinute) {
+                if (mFrameCountMinute >= 0) {
+                    Log.d(TAG, "Frames drawn in the last minute: " + mFrameCount);
                 }
-
-                float tickRotation = (float) (tickIndex * Math.PI * 2 / 60);
-                float innerX = (float) Math.sin(tickRotation) * innerTickRadius;
-                float innerY = (float) -Math.cos(tickRotation) * innerTickRadius;
-                float outerX = (float) Math.sin(tickRotation) * mCenterX;
-                float outerY = (float) -Math.cos(tickRotation) * mCenterX;
-                canvas.drawLine(mCenterX + innerX, mCenterY + innerY, mCenterX + outerX, mCenterY + outerY, mTickPaint);
+                mFrameCountMinute = minute;
+                mFrameCount = 0;
             }
-        }
-
-        private void drawHourAndMinuteHand(Canvas canvas) {
-
-            // Constant to help calculate clock hand rotations
-            final float TWO_PI = (float) Math.PI * 2f;
-
-            float seconds = mCalendar.get(Calendar.SECOND) +
-                    mCalendar.get(Calendar.MILLISECOND) / 1000f;
-
-            float minutes = mCalendar.get(Calendar.MINUTE) + seconds / 60f;
-            float minutesRotation = minutes / 60f * TWO_PI;
-
-            float hours = mCalendar.get(Calendar.HOUR) + minutes / 60f;
-            float hoursRotation = hours / 12f * TWO_PI;
-
-            float minX = (float) Math.sin(minutesRotation) * mMinuteHandLength;
-            float minY = (float) -Math.cos(minutesRotation) * mMinuteHandLength;
-            canvas.drawLine(mCenterX, mCenterY, mCenterX + minX, mCenterY + minY, mHourAndMinuteHandPaint);
-
-            float hrX = (float) Math.sin(hoursRotation) * mHourHandLength;
-            float hrY = (float) -Math.cos(hoursRotation) * mHourHandLength;
-            canvas.drawLine(mCenterX, mCenterY, mCenterX + hrX, mCenterY + hrY, mHourAndMinuteHandPaint);
-        }
-
-        private void drawSecondHand(Canvas canvas) {
-            final float seconds =
-                    (mCalendar.get(Calendar.SECOND) + mCalendar.get(Calendar.MILLISECOND) / 1000f);
-
-            // Constant to help calculate clock hand rotations
-            final float TWO_PI = (float) Math.PI * 2f;
-
-            final float secondsRotation = seconds / 60f * TWO_PI;
-
-            if (!mAmbient) {
-                float secX = (float) Math.sin(secondsRotation) * mSecondHandLength;
-                float secY = (float) -Math.cos(secondsRotation) * mSecondHandLength;
-                canvas.drawLine(mCenterX, mCenterY, mCenterX + secX, mCenterY + secY, mSecondHandPaint);
-            }
-        }
-
-        private void drawCircle(Canvas canvas) {
-            final float circleRadius = 8.5f;
-            canvas.drawCircle(mCenterX, mCenterY, circleRadius, mCirclePaint);
+            mFrameCount++;
         }
 
         @Override
         public void onVisibilityChanged(boolean visible) {
             super.onVisibilityChanged(visible);
 
+            // Hand over any step counts held back by batching; the next redraw shows them.
+            mStepSource.flush();
+
             if (visible) {
                 registerReceiver();
 
                 // Update time zone in case it changed while we weren't visible.
-                mCalendar.setTimeZone(TimeZone.getDefault());
+                mController.setTimeZone(TimeZone.getDefault());
+                // Same for the locale and 12/24-hour setting the palettes were built with.
+                mRenderer.updatePalettes();
+                // And calendar access, which may have been granted since.
+                if (mAgendaCache == null) {
+                    startAgendaCache();
+                }
                 invalidate();
             } else {
                 unregisterReceiver();
+
+                mStepCounter.save();
+                if (Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, "Step reports: " + mStepCounter.getEventCount() + " in "
+                            + mStepCounter.getWakeupCount() + " wakeups, "
+                            + mStepCounter.getWakeupsSaved() + " wakeups saved by batching");
+                }
             }
 
             // Whether the timer should be running depends on whether we're visible (as well as
@@ -418,12 +241,37 @@ public class RadarWatchFace extends CanvasWatchFaceService {
             updateTimer();
         }
 
+        @Override
+        public void onTapCommand(int tapType, int x, int y, long eventTime) {
+            if (tapType == TAP_TYPE_TAP && mAgendaCache == null) {
+                Intent intent = new Intent(RadarWatchFace.this, CalendarPermissionActivity.class);
+                intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+                startActivity(intent);
+            }
+        }
+
+        /*
+         * Starts loading the agenda if the calendar can be read; otherwise the face shows a hint
+         * to tap for access in place of the next event.
+         */
+        private void startAgendaCache() {
+            mAgendaCache = AgendaCache.createForWearableCalendar(RadarWatchFace.this);
+            mRenderer.setCalendarPermissionNeeded(mAgendaCache == null);
+            if (mAgendaCache != null) {
+                mAgendaCache.setListener(mAgendaListener);
+                mAgendaCache.register();
+                mController.setAgendaCache(mAgendaCache);
+            }
+        }
+
         private void registerReceiver() {
             if (mRegisteredTimeZoneReceiver) {
                 return;
             }
             mRegisteredTimeZoneReceiver = true;
             IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+            filter.addAction(Intent.ACTION_LOCALE_CHANGED);
+            filter.addAction(Intent.ACTION_TIME_CHANGED);
             RadarWatchFace.this.registerReceiver(mTimeZoneReceiver, filter);
         }
 
@@ -451,7 +299,7 @@ public class RadarWatchFace extends CanvasWatchFaceService {
          * only run when we're visible and in interactive mode.
          */
         private boolean shouldTimerBeRunning() {
-            return isVisible() && !isInAmbientMode();
+            return mController.shouldTimerBeRunning(isVisible());
         }
 
         /**
@@ -460,9 +308,7 @@ public class RadarWatchFace extends CanvasWatchFaceService {
         private void handleUpdateTimeMessage() {
             invalidate();
             if (shouldTimerBeRunning()) {
-                long timeMs = System.currentTimeMillis();
-                long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                        - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
+                long delayMs = mController.delayToNextFrameMs();
                 mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
             }
         }
@@ -0,0 +1,79 @@
+package com.moyinoluwa.radarwatchface;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StepSource} backed by the hardware step counter. The sensor is registered with a long
+ * maximum report latency so step events queue up in the sensor hub FIFO and reach the
+ * application processor in batches, rather than waking it up for every step.
+ */
+class SensorStepSource implements StepSource, SensorEventListener {
+
+    /**
+     * How long the sensor hub may hold on to step events before delivering them. Visibility
+     * changes flush the FIFO, so the count is fresh whenever the face is looked at.
+     */
+    private static final int MAX_REPORT_LATENCY_US = (int) TimeUnit.MINUTES.toMicros(5);
+
+    private final SensorManager mSensorManager;
+    private final Sensor mStepCounter;
+
+    private Listener mListener;
+
+    SensorStepSource(Context context) {
+        mSensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        mStepCounter = mSensorManager.getDefaultSensor(Sensor.TYPE_STEP_COUNTER);
+    }
+
+    @Override
+    public boolean register(Listener listener) {
+        if (mStepCounter == null) {
+            return false;
+        }
+        mListener = listener;
+        return mSensorManager.registerListener(this, mStepCounter,
+                SensorManager.SENSOR_DELAY_NORMAL, MAX_REPORT_LATENCY_US);
+    }
+
+    @Override
+    public void unregister() {
+        if (mListener != null) {
+            mSensorManager.unregisterListener(this);
+            mListener = null;
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (mListener != null) {
+            mSensorManager.flush(this);
+        }
+    }
+
+    /**
+     * The hardware counter restarts from zero when the device boots.
+     */
+    @Override
+    public long getCounterStartMs() {
+        return WatchClock.get().currentTimeMillis() - SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        if (mListener != null) {
+            mListener.onStepCount((long) event.values[0], WatchClock.get().currentTimeMillis(),
+                    SystemClock.elapsedRealtime());
+        }
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.moyinoluwa.radarwatchface;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Turns the cumulative counts from a {@link StepSource} into steps taken today. It never asks
+ * for a redraw itself; the faces read {@link #getStepsToday(long)} from their regular per-second
+ * or per-minute updates.
+ *
+ * <p>The day a report belongs to is worked out when the report arrives, so the first report
+ * after midnight starts the new day from the last count of the previous one, however late the
+ * face is next drawn. The day and its baseline are kept in a {@link Store}, so the count survives
+ * the face being switched or its process being restarted.
+ *
+ * <p>It also keeps track of how many reports arrived and how many of them shared a single
+ * wakeup of the application processor, which shows what batching in the sensor hub saves.
+ */
+class StepCounter implements StepSource.Listener {
+
+    /**
+     * Reports arriving within this many milliseconds of each other are treated as one batch
+     * delivered by a single wakeup.
+     */
+    static final long BATCH_WINDOW_MS = 100;
+
+    /**
+     * Where the current day and its baseline are kept between engines.
+     */
+    interface Store {
+
+        /**
+         * Returns whether anything has been saved yet.
+         */
+        boolean hasSavedState();
+
+        int getDay();
+
+        long getBaseline();
+
+        long getLatestTotal();
+
+        /**
+         * Returns the source's uptime when the latest total was reported.
+         */
+        long getUptimeMs();
+
+        void save(int day, long baseline, long latestTotal, long uptimeMs);
+    }
+
+    private final Store mStore;
+    private final long mCounterStartMs;
+    private final Calendar mCalendar;
+
+    private long mLatestTotal = -1;
+    private long mLatestUptimeMs = -1;
+    private long mBaseline;
+    private int mDay = -1;
+
+    private long mLastReceivedAtMs = -1;
+    private int mEventCount;
+    private int mWakeupCount;
+
+    /**
+     * @param counterStartMs wall clock time at which the source's counter started from zero,
+     *                       which for the hardware step counter is when the device booted. Only
+     *                       used to tell whether the counter started today; reboots are detected
+     *                       from the uptime passed with each report, which a clock change can't
+     *                       move.
+     */
+    StepCounter(Store store, long counterStartMs, TimeZone timeZone) {
+        mStore = store;
+        mCounterStartMs = counterStartMs;
+        mCalendar = Calendar.getInstance(timeZone);
+
+        if (store.hasSavedState()) {
+            mDay = store.getDay();
+            mBaseline = store.getBaseline();
+            mLatestTotal = store.getLatestTotal();
+            mLatestUptimeMs = store.getUptimeMs();
+        }
+    }
+
+    void setTimeZone(TimeZone timeZone) {
+        mCalendar.setTimeZone(timeZone);
+    }
+
+    @Override
+    public void onStepCount(long totalSteps, long receivedAtMs, long uptimeMs) {
+        mEventCount++;
+        boolean newWakeup = mLastReceivedAtMs < 0
+                || receivedAtMs - mLastReceivedAtMs > BATCH_WINDOW_MS;
+        if (newWakeup) {
+            mWakeupCount++;
+        }
+        mLastReceivedAtMs = receivedAtMs;
+
+        int day = dayOf(receivedAtMs);
+        // Uptime only goes backwards across a reboot. A count that goes backwards catches a reboot
+        // followed by a longer uptime than before while no face was running.
+        boolean restarted = uptimeMs < mLatestUptimeMs || totalSteps < mLatestTotal;
+        boolean baselineChanged = true;
+        if (mLatestTotal >= 0 && !restarted) {
+            if (day != mDay) {
+                // Everything counted since the last report of the previous day was taken today.
+                mBaseline = mLatestTotal;
+                mDay = day;
+            } else {
+                baselineChanged = false;
+            }
+        } else if (mLatestTotal >= 0 && day == mDay) {
+            // The counter restarted from zero after a reboot; carry over today's steps so far.
+            mBaseline -= mLatestTotal;
+        } else {
+            // Nothing to count from: the first report ever, or the first since a reboot on an
+            // earlier day. If the counter started today, all of its steps were taken today.
+            mBaseline = (mCounterStartMs >= startOfDay(receivedAtMs)) ? 0 : totalSteps;
+            mDay = day;
+        }
+        mLatestTotal = totalSteps;
+        mLatestUptimeMs = uptimeMs;
+
+        // Saving once per wakeup keeps the stored total at most one batch behind, even if the
+        // process is killed before save() is called.
+        if (newWakeup || baselineChanged) {
+            save();
+        }
+    }
+
+    /**
+     * Saves the latest count to the store. Called when the face stops, so the next engine
+     * carries on from exactly where this one left off.
+     */
+    void save() {
+        if (mLatestTotal >= 0) {
+            mStore.save(mDay, mBaseline, mLatestTotal, mLatestUptimeMs);
+        }
+    }
+
+    /**
+     * Returns the steps taken on the day containing {@code timeMs}, or -1 if no count has arrived
+     * yet. Returns 0 for a day no report has arrived on.
+     */
+    long getStepsToday(long timeMs) {
+        if (mLatestTotal < 0) {
+            return -1;
+        }
+        if (dayOf(timeMs) != mDay) {
+            return 0;
+        }
+        return mLatestTotal - mBaseline;
+    }
+
+    /**
+     * Returns how many step reports have been received.
+     */
+    int getEventCount() {
+        return mEventCount;
+    }
+
+    /**
+     * Returns how many times the application processor was woken up to deliver step reports.
+     */
+    int getWakeupCount() {
+        return mWakeupCount;
+    }
+
+    /**
+     * Returns how many wakeups batching avoided compared to delivering every report on its own.
+     */
+    int getWakeupsSaved() {
+        return mEventCount - mWakeupCount;
+    }
+
+    /*
+     * Any value that changes once a local day and never repeats within a few years.
+     */
+    private int dayOf(long timeMs) {
+        mCalendar.setTimeInMillis(timeMs);
+        return mCalendar.get(Calendar.YEAR) * 1000 + mCalendar.get(Calendar.DAY_OF_YEAR);
+    }
+
+    private long startOfDay(long timeMs) {
+        mCalendar.setTimeInMillis(timeMs);
+        mCalendar.set(Calendar.HOUR_OF_DAY, 0);
+        mCalendar.set(Calendar.MINUTE, 0);
+        mCalendar.set(Calendar.SECOND, 0);
+        mCalendar.set(Calendar.MILLISECOND, 0);
+        return mCalendar.getTimeInMillis();
+    }
+}
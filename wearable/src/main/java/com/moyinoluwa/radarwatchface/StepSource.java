@@ -0,0 +1,37 @@
+package com.moyinoluwa.radarwatchface;
+
+/**
+ * Source of cumulative step counts. Kept free of Android types so the counting logic can be
+ * exercised on the JVM with a fake source.
+ */
+interface StepSource {
+
+    /**
+     * Starts delivering step counts to {@code listener}. Returns {@code false} if the device has
+     * no step counter.
+     */
+    boolean register(Listener listener);
+
+    void unregister();
+
+    /**
+     * Asks for any step counts still held back by batching to be delivered now.
+     */
+    void flush();
+
+    /**
+     * Returns the wall clock time at which the cumulative count last started from zero.
+     */
+    long getCounterStartMs();
+
+    interface Listener {
+
+        /**
+         * Called with the total number of steps reported by the source, the {@link WatchClock}
+         * time in milliseconds at which the report reached the application processor, and the
+         * milliseconds since the count last started from zero on a clock that only moves
+         * forward, unlike the wall clock.
+         */
+        void onStepCount(long totalSteps, long receivedAtMs, long uptimeMs);
+    }
+}
@@ -0,0 +1,37 @@
+package com.moyinoluwa.radarwatchface;
+
+/**
+ * Source of the current time for both watch faces. The engines read the time through
+ * {@link #get()} instead of calling {@link System#currentTimeMillis()} directly so that a
+ * simulated clock can be swapped in when replaying a day of ticks off the wrist.
+ */
+abstract class WatchClock {
+
+    /**
+     * Clock backed by the system wall clock. This is what the faces use on a real watch.
+     */
+    static final WatchClock SYSTEM = new WatchClock() {
+        @Override
+        long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static volatile WatchClock sCurrent = SYSTEM;
+
+    /**
+     * Returns the clock the faces should currently read the time from.
+     */
+    static WatchClock get() {
+        return sCurrent;
+    }
+
+    /**
+     * Replaces the clock read by the faces. Passing {@code null} restores {@link #SYSTEM}.
+     */
+    static void set(WatchClock clock) {
+        sCurrent = (clock == null) ? SYSTEM : clock;
+    }
+
+    abstract long currentTimeMillis();
+}
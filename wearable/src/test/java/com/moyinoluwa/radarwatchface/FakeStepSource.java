@@ -0,0 +1,97 @@
+package com.moyinoluwa.radarwatchface;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link StepSource} that behaves like a batching sensor hub: counts are queued until the batch
+ * is delivered, either by the test or by {@link #flush()}.
+ */
+class FakeStepSource implements StepSource {
+
+    private final List<Long> mQueuedTotals = new ArrayList<>();
+
+    private Listener mListener;
+    private long mNowMs;
+    private long mUptimeMs;
+    private int mFlushCount;
+
+    FakeStepSource(long nowMs, long counterStartMs) {
+        mNowMs = nowMs;
+        mUptimeMs = nowMs - counterStartMs;
+    }
+
+    @Override
+    public boolean register(Listener listener) {
+        mListener = listener;
+        return true;
+    }
+
+    @Override
+    public void unregister() {
+        mListener = null;
+    }
+
+    @Override
+    public void flush() {
+        mFlushCount++;
+        deliverBatch();
+    }
+
+    @Override
+    public long getCounterStartMs() {
+        return mNowMs - mUptimeMs;
+    }
+
+    /**
+     * Moves the fake clock to {@code nowMs} without delivering anything.
+     */
+    void setTime(long nowMs) {
+        mUptimeMs += nowMs - mNowMs;
+        mNowMs = nowMs;
+    }
+
+    /**
+     * Sets the wall clock by {@code deltaMs}, as a network time sync or the user would, while
+     * the uptime carries on unchanged.
+     */
+    void changeClock(long deltaMs) {
+        mNowMs += deltaMs;
+    }
+
+    /**
+     * Starts the counter from zero again at the current time, as a reboot would.
+     */
+    void reboot() {
+        mUptimeMs = 0;
+    }
+
+    long getTime() {
+        return mNowMs;
+    }
+
+    /**
+     * Queues a step count in the fake FIFO without waking up the listener.
+     */
+    void queue(long totalSteps) {
+        mQueuedTotals.add(totalSteps);
+    }
+
+    /**
+     * Delivers every queued count back-to-back, as one wakeup would, and moves time on a minute.
+     */
+    void deliverBatch() {
+        if (mListener != null) {
+            for (long total : mQueuedTotals) {
+                mListener.onStepCount(total, mNowMs++, mUptimeMs++);
+            }
+        }
+        mQueuedTotals.clear();
+        mNowMs += 60000;
+        mUptimeMs += 60000;
+    }
+
+    int getFlushCount() {
+        return mFlushCount;
+    }
+}
@@ -0,0 +1,54 @@
+package com.moyinoluwa.radarwatchface;
+
+/**
+ * In-memory {@link StepCounter.Store} that outlives the counters using it, like the shared
+ * preferences do across engines.
+ */
+class FakeStepStore implements StepCounter.Store {
+
+    private boolean mSaved;
+    private int mDay;
+    private long mBaseline;
+    private long mLatestTotal;
+    private long mUptimeMs;
+    private int mSaveCount;
+
+    @Override
+    public boolean hasSavedState() {
+        return mSaved;
+    }
+
+    @Override
+    public int getDay() {
+        return mDay;
+    }
+
+    @Override
+    public long getBaseline() {
+        return mBaseline;
+    }
+
+    @Override
+    public long getLatestTotal() {
+        return mLatestTotal;
+    }
+
+    @Override
+    public long getUptimeMs() {
+        return mUptimeMs;
+    }
+
+    @Override
+    public void save(int day, long baseline, long latestTotal, long uptimeMs) {
+        mSaved = true;
+        mDay = day;
+        mBaseline = baseline;
+        mLatestTotal = latestTotal;
+        mUptimeMs = uptimeMs;
+        mSaveCount++;
+    }
+
+    int getSaveCount() {
+        return mSaveCount;
+    }
+}
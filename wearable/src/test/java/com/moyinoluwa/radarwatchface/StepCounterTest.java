@@ -0,0 +1,225 @@
+package com.moyinoluwa.radarwatchface;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class StepCounterTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long MIDNIGHT = TimeUnit.DAYS.toMillis(17000);
+
+    private FakeStepStore mStore;
+    private FakeStepSource mStepSource;
+    private StepCounter mStepCounter;
+
+    @Before
+    public void setUp() {
+        mStore = new FakeStepStore();
+        // The watch was booted the evening before and the face is started in the morning.
+        mStepSource = new FakeStepSource(MIDNIGHT + 8 * HOUR, MIDNIGHT - 4 * HOUR);
+        mStepCounter = startCounter();
+    }
+
+    private StepCounter startCounter() {
+        StepCounter stepCounter = new StepCounter(mStore, mStepSource.getCounterStartMs(), UTC);
+        mStepSource.register(stepCounter);
+        return stepCounter;
+    }
+
+    private long stepsNow() {
+        return mStepCounter.getStepsToday(mStepSource.getTime());
+    }
+
+    @Test
+    public void noCountBeforeFirstReport() {
+        assertEquals(-1, stepsNow());
+    }
+
+    @Test
+    public void countsStepsSinceFirstReportWhenBootedOnAnEarlierDay() {
+        mStepSource.queue(1000);
+        mStepSource.queue(1010);
+        mStepSource.queue(1025);
+        mStepSource.deliverBatch();
+
+        assertEquals(25, stepsNow());
+    }
+
+    @Test
+    public void countsAllStepsWhenBootedToday() {
+        // Booted at 7 am, face installed at 5 pm after 8000 steps.
+        mStepSource = new FakeStepSource(MIDNIGHT + 17 * HOUR, MIDNIGHT + 7 * HOUR);
+        mStepCounter = startCounter();
+
+        mStepSource.queue(8000);
+        mStepSource.deliverBatch();
+
+        assertEquals(8000, stepsNow());
+    }
+
+    @Test
+    public void queuedCountsOnlyShowUpAfterFlush() {
+        mStepSource.queue(500);
+        mStepSource.deliverBatch();
+        mStepSource.queue(540);
+
+        assertEquals(0, stepsNow());
+
+        mStepSource.flush();
+
+        assertEquals(40, stepsNow());
+        assertEquals(1, mStepSource.getFlushCount());
+    }
+
+    @Test
+    public void keepsTodaysStepsWhenTheFaceIsRestarted() {
+        mStepSource.queue(500);
+        mStepSource.queue(540);
+        mStepSource.deliverBatch();
+        mStepCounter.save();
+        mStepSource.unregister();
+
+        mStepCounter = startCounter();
+        assertEquals(40, stepsNow());
+
+        mStepSource.queue(600);
+        mStepSource.deliverBatch();
+        assertEquals(100, stepsNow());
+    }
+
+    @Test
+    public void showsZeroOnANewDayBeforeAnyReport() {
+        mStepSource.queue(200);
+        mStepSource.queue(300);
+        mStepSource.deliverBatch();
+        assertEquals(100, stepsNow());
+
+        assertEquals(0, mStepCounter.getStepsToday(MIDNIGHT + DAY + HOUR));
+    }
+
+    @Test
+    public void countsStepsTakenAfterMidnightBeforeTheNextDraw() {
+        mStepSource.queue(200);
+        mStepSource.setTime(MIDNIGHT + 23 * HOUR + 50 * 60 * 1000);
+        mStepSource.queue(300);
+        mStepSource.deliverBatch();
+
+        // The FIFO holds steps from just before and after midnight and only delivers at 00:04.
+        mStepSource.queue(340);
+        mStepSource.queue(360);
+        mStepSource.setTime(MIDNIGHT + DAY + 4 * 60 * 1000);
+        mStepSource.deliverBatch();
+
+        assertEquals(60, mStepCounter.getStepsToday(MIDNIGHT + DAY + 8 * HOUR));
+    }
+
+    @Test
+    public void keepsTodaysStepsAcrossAReboot() {
+        mStepSource.queue(200);
+        mStepSource.queue(260);
+        mStepSource.deliverBatch();
+
+        mStepSource.queue(15);
+        mStepSource.deliverBatch();
+
+        assertEquals(75, stepsNow());
+    }
+
+    @Test
+    public void keepsTodaysStepsWhenRebootedWhileTheFaceWasStopped() {
+        mStepSource.queue(200);
+        mStepSource.queue(260);
+        mStepSource.deliverBatch();
+        mStepCounter.save();
+        mStepSource.unregister();
+
+        // More steps since the reboot than the old total, so only the counter start shows it.
+        mStepSource.reboot();
+        mStepCounter = startCounter();
+        mStepSource.queue(300);
+        mStepSource.deliverBatch();
+
+        assertEquals(360, stepsNow());
+    }
+
+    @Test
+    public void keepsTodaysStepsWhenTheClockIsSetWhileTheFaceWasStopped() {
+        // Booted at 7 am and already counted 5000 steps.
+        mStepSource = new FakeStepSource(MIDNIGHT + 17 * HOUR, MIDNIGHT + 7 * HOUR);
+        mStepCounter = startCounter();
+        mStepSource.queue(5000);
+        mStepSource.deliverBatch();
+        mStepCounter.save();
+        mStepSource.unregister();
+
+        // The phone syncs the clock ten minutes forward, which moves the counter start with it.
+        mStepSource.changeClock(10 * 60 * 1000);
+        mStepCounter = startCounter();
+        mStepSource.queue(5100);
+        mStepSource.deliverBatch();
+
+        assertEquals(5100, stepsNow());
+    }
+
+    @Test
+    public void keepsCountingWhenTheClockIsSetBack() {
+        mStepSource.queue(200);
+        mStepSource.deliverBatch();
+        mStepSource.queue(260);
+        mStepSource.deliverBatch();
+
+        mStepSource.changeClock(-30 * 60 * 1000);
+        mStepSource.queue(300);
+        mStepSource.deliverBatch();
+
+        assertEquals(100, stepsNow());
+    }
+
+    @Test
+    public void batchedReportsShareOneWakeup() {
+        for (int batch = 0; batch < 3; batch++) {
+            for (int step = 0; step < 10; step++) {
+                mStepSource.queue(batch * 10 + step);
+            }
+            mStepSource.deliverBatch();
+        }
+
+        assertEquals(30, mStepCounter.getEventCount());
+        assertEquals(3, mStepCounter.getWakeupCount());
+        assertEquals(27, mStepCounter.getWakeupsSaved());
+    }
+
+    @Test
+    public void keepsAllButTheLastBatchWhenStoppedWithoutSaving() {
+        mStepSource.queue(500);
+        mStepSource.deliverBatch();
+        mStepSource.queue(540);
+        mStepSource.queue(560);
+        mStepSource.deliverBatch();
+        mStepSource.unregister();
+
+        mStepCounter = startCounter();
+
+        assertEquals(40, stepsNow());
+    }
+
+    @Test
+    public void savesOncePerWakeup() {
+        for (int batch = 0; batch < 3; batch++) {
+            for (int step = 0; step < 10; step++) {
+                mStepSource.queue(batch * 10 + step);
+            }
+            mStepSource.deliverBatch();
+        }
+
+        assertEquals(3, mStore.getSaveCount());
+    }
+}